@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Cut a YAML stream before its document start indicators ('---' at the
+ * beginning of a line). Such a line cannot be the content of a scalar: a block
+ * scalar is indented and the plain and quoted scalars stop there (see
+ * ScannerImpl), so every part is a valid stream when the whole stream is
+ * valid. The directives ('%' at the beginning of a line) belong to the next
+ * document and go to the next part together with the comments and the empty
+ * lines before them. Such a line may also be the content of a multi-line
+ * quoted scalar, of a flow collection or of a plain scalar of the top level,
+ * so the content lines are followed roughly: a '%' line is taken as a
+ * directive only when no such scalar or collection can be open, otherwise it
+ * stays in the current part.
+ */
+class DocumentSplitter {
+    private static final String BLANKS = " \t\r\n\u0085\u2028\u2029";
+    private static final String FLOW_INDICATORS = ",[]{}";
+    private static final int NO_BLOCK = Integer.MIN_VALUE;
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pointer = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    // the part which is being read
+    private StringBuilder part = new StringBuilder();
+    // the comment lines and the empty lines after the last content line, they
+    // go to the next part when a directive follows
+    private final StringBuilder pending = new StringBuilder();
+    // the directives of the next document (with the lines before them)
+    private final StringBuilder held = new StringBuilder();
+    private final StringBuilder line = new StringBuilder();
+    // the state after the last content line: the quote of an open quoted
+    // scalar (or 0), the level of the flow collections, the indentation of
+    // the line with a block scalar header (the more indented lines are the
+    // content of the block scalar), if the first node of the document is not
+    // found yet and if it is a plain scalar which may continue at column 0
+    private char quote = 0;
+    private int flowLevel = 0;
+    private int blockIndent = NO_BLOCK;
+    private boolean rootExpected = true;
+    private boolean rootPlain = false;
+
+    public DocumentSplitter(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next part of the stream or <code>null</code> at its end
+     */
+    public String next() {
+        while (readLine()) {
+            if (isIndicator('-')) {
+                part.append(pending);
+                pending.setLength(0);
+                String result = part.length() > 0 ? part.toString() : null;
+                part = new StringBuilder();
+                part.append(held).append(line);
+                held.setLength(0);
+                resetState();
+                // the node may start after the indicator
+                scanContent(3, 0);
+                if (result != null) {
+                    return result;
+                }
+            } else if (quote == 0 && flowLevel == 0 && !rootPlain && isDirective()) {
+                held.append(pending).append(line);
+                pending.setLength(0);
+            } else if (quote == 0 && (isComment() || isBlank())) {
+                if (!isBlank()) {
+                    // a comment ends a plain scalar
+                    rootPlain = false;
+                }
+                if (held.length() > 0) {
+                    held.append(line);
+                } else {
+                    pending.append(line);
+                }
+            } else {
+                // the content after a directive is not valid, keep the order
+                part.append(pending).append(held).append(line);
+                pending.setLength(0);
+                held.setLength(0);
+                if (isIndicator('.')) {
+                    resetState();
+                } else {
+                    scanContent(0, countSpaces());
+                }
+            }
+        }
+        part.append(pending).append(held);
+        pending.setLength(0);
+        held.setLength(0);
+        if (part.length() == 0) {
+            return null;
+        }
+        String result = part.toString();
+        part.setLength(0);
+        return result;
+    }
+
+    private void resetState() {
+        quote = 0;
+        flowLevel = 0;
+        blockIndent = NO_BLOCK;
+        rootExpected = true;
+        rootPlain = false;
+    }
+
+    /**
+     * A line with only a comment (which is not the content of a block scalar)
+     */
+    private boolean isComment() {
+        int spaces = countSpaces();
+        if (blockIndent != NO_BLOCK && spaces > blockIndent) {
+            return false;
+        }
+        int i = spaces;
+        while (i < line.length() && line.charAt(i) == '\t') {
+            i++;
+        }
+        return i < line.length() && line.charAt(i) == '#';
+    }
+
+    private int countSpaces() {
+        int spaces = 0;
+        while (spaces < line.length() && line.charAt(spaces) == ' ') {
+            spaces++;
+        }
+        return spaces;
+    }
+
+    /**
+     * Follow the quoted scalars, the flow collections, the block scalars and
+     * the plain scalar of the top level in a content line.
+     * 
+     * @param start
+     *            the position of the content in the line
+     * @param indent
+     *            the indentation of the line
+     */
+    private void scanContent(int start, int indent) {
+        if (blockIndent != NO_BLOCK) {
+            if (indent > blockIndent) {
+                // the content of a block scalar
+                return;
+            }
+            blockIndent = NO_BLOCK;
+        }
+        int length = line.length();
+        int i = start;
+        while (i < length) {
+            char ch = line.charAt(i);
+            if (quote == '"') {
+                if (ch == '\\') {
+                    i++;
+                } else if (ch == '"') {
+                    quote = 0;
+                }
+                i++;
+            } else if (quote == '\'') {
+                if (ch == '\'' && i + 1 < length && line.charAt(i + 1) == '\'') {
+                    i++;
+                } else if (ch == '\'') {
+                    quote = 0;
+                }
+                i++;
+            } else if (BLANKS.indexOf(ch) != -1) {
+                i++;
+            } else if (ch == '#') {
+                // a comment (it ends a plain scalar)
+                rootPlain = false;
+                return;
+            } else if (rootPlain) {
+                // the continuation of the plain scalar, only a comment ends it
+                i = Math.max(skipPlain(i), i + 1);
+            } else {
+                i = scanToken(i, indent);
+            }
+        }
+    }
+
+    /**
+     * @return the position after the token or the end of the line after a
+     *         block scalar header
+     */
+    private int scanToken(int start, int indent) {
+        int length = line.length();
+        char ch = line.charAt(start);
+        int next = start + 1;
+        if (ch == '!' || ch == '&' || ch == '*') {
+            // the properties of a node or an alias
+            if (ch == '*') {
+                rootExpected = false;
+            }
+            while (next < length && BLANKS.indexOf(line.charAt(next)) == -1
+                    && (flowLevel == 0 || FLOW_INDICATORS.indexOf(line.charAt(next)) == -1)) {
+                next++;
+            }
+            return next;
+        }
+        boolean first = rootExpected && flowLevel == 0;
+        rootExpected = false;
+        if (ch == '"' || ch == '\'') {
+            quote = ch;
+            return next;
+        } else if (ch == '[' || ch == '{') {
+            flowLevel++;
+            return next;
+        } else if (ch == ']' || ch == '}') {
+            if (flowLevel > 0) {
+                flowLevel--;
+            }
+            return next;
+        } else if (ch == ',' && flowLevel > 0) {
+            return next;
+        } else if ((ch == '|' || ch == '>') && flowLevel == 0) {
+            // the rest of the line is the header of a block scalar
+            blockIndent = indent;
+            return length;
+        } else if ((ch == '-' || ch == '?' || ch == ':')
+                && (next == length || BLANKS.indexOf(line.charAt(next)) != -1)) {
+            // an indicator of a block collection
+            return next;
+        }
+        int end = Math.max(skipPlain(start), next);
+        if (first && (end == length || line.charAt(end) != ':')) {
+            // a plain scalar which is not a key may continue at column 0
+            rootPlain = true;
+        }
+        return end;
+    }
+
+    /**
+     * @return the position after the plain scalar in the line (before ': ',
+     *         ' #' or a flow indicator in the flow context)
+     */
+    private int skipPlain(int start) {
+        int length = line.length();
+        int i = start;
+        while (i < length) {
+            char ch = line.charAt(i);
+            char next = i + 1 < length ? line.charAt(i + 1) : '\n';
+            if (ch == ':' && (BLANKS.indexOf(next) != -1
+                    || (flowLevel > 0 && FLOW_INDICATORS.indexOf(next) != -1))) {
+                break;
+            } else if (BLANKS.indexOf(ch) != -1 && next == '#') {
+                break;
+            } else if (flowLevel > 0 && FLOW_INDICATORS.indexOf(ch) != -1) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * '---' or '...' followed by a blank or the end of the line
+     */
+    private boolean isIndicator(char ch) {
+        if (line.length() < 3 || line.charAt(0) != ch || line.charAt(1) != ch
+                || line.charAt(2) != ch) {
+            return false;
+        }
+        return line.length() == 3 || BLANKS.indexOf(line.charAt(3)) != -1;
+    }
+
+    /**
+     * '%' and a name which ScannerImpl accepts for a directive
+     */
+    private boolean isDirective() {
+        if (line.charAt(0) != '%') {
+            return false;
+        }
+        int length = 1;
+        while (length < line.length() && isNameChar(line.charAt(length))) {
+            length++;
+        }
+        return length > 1
+                && (length == line.length() || BLANKS.indexOf(line.charAt(length)) != -1);
+    }
+
+    private static boolean isNameChar(char ch) {
+        return (ch >= '0' && ch <= '9') || (ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')
+                || ch == '-' || ch == '_';
+    }
+
+    /**
+     * Count the line breaks as StreamReader does ('\r\n' is one break).
+     */
+    static int countLines(CharSequence text) {
+        int lines = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                lines++;
+            } else if (ch == '\r' && (i + 1 == length || text.charAt(i + 1) != '\n')) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private boolean isBlank() {
+        for (int i = 0; i < line.length(); i++) {
+            if (BLANKS.indexOf(line.charAt(i)) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the next line with its line break into 'line'.
+     * 
+     * @return false at the end of the stream
+     */
+    private boolean readLine() {
+        line.setLength(0);
+        while (ensure()) {
+            int start = pointer;
+            while (pointer < limit) {
+                char ch = buffer[pointer++];
+                if (ch == '\n' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                    line.append(buffer, start, pointer - start);
+                    return true;
+                } else if (ch == '\r') {
+                    line.append(buffer, start, pointer - start);
+                    if (ensure() && buffer[pointer] == '\n') {
+                        line.append('\n');
+                        pointer++;
+                    }
+                    return true;
+                }
+            }
+            line.append(buffer, start, pointer - start);
+        }
+        return line.length() > 0;
+    }
+
+    /**
+     * @return false when there are no more characters
+     */
+    private boolean ensure() {
+        while (pointer == limit && !eof) {
+            try {
+                int read = reader.read(buffer);
+                if (read == -1) {
+                    eof = true;
+                } else {
+                    pointer = 0;
+                    limit = read;
+                }
+            } catch (IOException e) {
+                throw new YAMLException(e);
+            }
+        }
+        return pointer < limit;
+    }
+}
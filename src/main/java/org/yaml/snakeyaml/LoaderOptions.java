@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import org.yaml.snakeyaml.scanner.SymbolTable;
+
+public class LoaderOptions {
+    /**
+     * Defines what the Marks (the positions of the tokens, events and nodes
+     * in the input) keep to report errors.
+     */
+    public enum MarkMode {
+        /**
+         * Each Mark refers to the part of the input around it to show the
+         * snippet. This is the default. For the input from a Reader (or a
+         * stream) the Marks share the window of the StreamReader, so the
+         * window is allocated again for every refill and it is kept as long
+         * as its Marks are.
+         */
+        SNIPPET,
+        /**
+         * Marks keep only the position. The snippet is built when it is
+         * requested and only while the source of the Mark is not released
+         * (see <code>Mark.getSource()</code>). The source is available only
+         * when the input is in memory (a String or another CharSequence).
+         * Such input is always used this way, even for SNIPPET. The source is
+         * released when the document is loaded: the Marks kept by the
+         * constructed objects report only the position. The Marks of an
+         * error keep the snippet.
+         */
+        POSITION,
+        /**
+         * No Marks are created. The tokens, events and nodes refer to
+         * <code>Mark.UNKNOWN</code>. The errors found by the scanner report
+         * only the index in the input (in chars), the errors found later do
+         * not report the position at all. This is the fastest mode for the
+         * trusted documents.
+         */
+        NONE;
+
+        @Override
+        public String toString() {
+            return "Mark mode: " + name();
+        }
+    }
+
+    private MarkMode markMode = MarkMode.SNIPPET;
+    private SymbolTable symbolTable = null;
+    private int largeScalarLimit = Integer.MAX_VALUE;
+    private boolean pipelined = false;
+
+    public MarkMode getMarkMode() {
+        return markMode;
+    }
+
+    public void setMarkMode(MarkMode markMode) {
+        if (markMode == null) {
+            throw new NullPointerException("Use MarkMode enum.");
+        }
+        this.markMode = markMode;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Share the Strings of the repeated mapping keys (the plain scalars
+     * followed by ':') between the documents loaded with these options. The
+     * table keeps the statistics of the hits and misses. The table is not
+     * thread-safe, the options with a table must not be used by the loaders
+     * which run in parallel.
+     * 
+     * @param symbolTable
+     *            the table or null (the default) to create a String for each
+     *            key
+     */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    public int getLargeScalarLimit() {
+        return largeScalarLimit;
+    }
+
+    /**
+     * Keep the literal and folded scalars longer than the limit outside of
+     * the heap (see <code>DirectCharSequence</code>). Their nodes expose the
+     * content with <code>ScalarNode.getValueSequence()</code>, and the
+     * JavaBean properties of the types <code>Reader</code>,
+     * <code>InputStream</code> and <code>byte[]</code> (the last two are
+     * Base64 encoded) are created without a String of the whole content.
+     * Any other use of the value creates the String.
+     * 
+     * @param largeScalarLimit
+     *            the number of characters, the default is
+     *            <code>Integer.MAX_VALUE</code> (all the scalars are Strings)
+     */
+    public void setLargeScalarLimit(int largeScalarLimit) {
+        if (largeScalarLimit < 1) {
+            throw new IllegalArgumentException("The limit must be positive: "
+                    + largeScalarLimit);
+        }
+        this.largeScalarLimit = largeScalarLimit;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Scan and parse the document in two more threads while it is composed and
+     * constructed (see <code>PipelinedParser</code>). It is used by
+     * <code>Yaml.load()</code> and <code>Yaml.loadAs()</code> and it is worth
+     * only for very large documents on a multi-core machine.
+     * 
+     * @param pipelined
+     *            <code>true</code> to use the threads, the default is
+     *            <code>false</code>
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+}
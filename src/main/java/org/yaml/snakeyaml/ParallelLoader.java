@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Load the documents of a stream in parallel. The stream is cut before its
+ * document start indicators (a quick scan of the lines), the documents are
+ * scanned, composed and constructed by the worker threads and they are
+ * returned in the order of the stream. Every worker thread has its own Yaml
+ * instance. The threads are daemons and they stop when they are idle for a
+ * second.
+ * <p>
+ * The Marks refer to the whole stream as with Yaml.loadAll(Reader). The
+ * documents cannot refer to each other, so the result is the same as with
+ * Yaml.loadAll().
+ * </p>
+ */
+public class ParallelLoader {
+    // the small documents are loaded together, the consecutive parts of a
+    // stream are a valid stream
+    private static final int BATCH_SIZE = 32 * 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Yaml> yaml;
+    // the number of batches which are read ahead of the iterator
+    private final int window;
+
+    /**
+     * Create a loader with a thread for every processor and the default Yaml.
+     */
+    public ParallelLoader() {
+        this(Runtime.getRuntime().availableProcessors(), new Callable<Yaml>() {
+            public Yaml call() {
+                return new Yaml();
+            }
+        });
+    }
+
+    /**
+     * @param threads
+     *            the number of the worker threads
+     * @param factory
+     *            creates the Yaml for every worker thread (it is called in the
+     *            worker thread)
+     */
+    public ParallelLoader(int threads, final Callable<Yaml> factory) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required: " + threads);
+        }
+        this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "snakeyaml-loader");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        this.yaml = new ThreadLocal<Yaml>() {
+            @Override
+            protected Yaml initialValue() {
+                try {
+                    return factory.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new YAMLException(e);
+                }
+            }
+        };
+        this.window = threads * 4;
+    }
+
+    /**
+     * Parse all YAML documents in a stream and produce the corresponding Java
+     * objects. The stream is read while the iterator is used.
+     * 
+     * @param input
+     *            YAML data to load from (BOM must not be present)
+     * @return an iterator over the Java objects in the order of the stream
+     */
+    public Iterable<Object> loadAll(Reader input) {
+        final Iterator<Object> result = new ParallelIterator(new DocumentSplitter(input));
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return result;
+            }
+        };
+    }
+
+    public Iterable<Object> loadAll(String input) {
+        return loadAll(new StringReader(input));
+    }
+
+    private class LoadTask implements Callable<List<Object>> {
+        private final String batch;
+        // the position of the batch in the stream
+        private final int index;
+        private final int line;
+
+        public LoadTask(String batch, int index, int line) {
+            this.batch = batch;
+            this.index = index;
+            this.line = line;
+        }
+
+        public List<Object> call() {
+            List<Object> result = new ArrayList<Object>();
+            try {
+                for (Object data : yaml.get().loadAll(new StringReader(batch), index, line)) {
+                    result.add(data);
+                }
+            } catch (RuntimeException e) {
+                // the documents before the failure are returned
+                result.add(new Failure(e));
+            }
+            return result;
+        }
+    }
+
+    private static final class Failure {
+        private final RuntimeException exception;
+
+        public Failure(RuntimeException exception) {
+            this.exception = exception;
+        }
+    }
+
+    private class ParallelIterator implements Iterator<Object> {
+        private final DocumentSplitter splitter;
+        private final LinkedList<Future<List<Object>>> tasks;
+        private Iterator<Object> current = Collections.emptyList().iterator();
+        private boolean end = false;
+        // the position of the next batch
+        private int index = 0;
+        private int line = 0;
+
+        public ParallelIterator(DocumentSplitter splitter) {
+            this.splitter = splitter;
+            this.tasks = new LinkedList<Future<List<Object>>>();
+        }
+
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                submit();
+                if (tasks.isEmpty()) {
+                    return false;
+                }
+                current = get(tasks.removeFirst()).iterator();
+            }
+            return true;
+        }
+
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object data = current.next();
+            if (data instanceof Failure) {
+                stop();
+                current = Collections.emptyList().iterator();
+                throw ((Failure) data).exception;
+            }
+            return data;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void submit() {
+            while (!end && tasks.size() < window) {
+                StringBuilder batch = new StringBuilder();
+                while (batch.length() < BATCH_SIZE) {
+                    String part;
+                    try {
+                        part = splitter.next();
+                    } catch (YAMLException e) {
+                        stop();
+                        throw e;
+                    }
+                    if (part == null) {
+                        end = true;
+                        break;
+                    }
+                    batch.append(part);
+                }
+                if (batch.length() > 0) {
+                    tasks.add(executor.submit(new LoadTask(batch.toString(), index, line)));
+                    index += batch.length();
+                    line += DocumentSplitter.countLines(batch);
+                }
+            }
+        }
+
+        private List<Object> get(Future<List<Object>> task) {
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                stop();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new YAMLException(cause);
+            } catch (InterruptedException e) {
+                stop();
+                Thread.currentThread().interrupt();
+                throw new YAMLException(e);
+            }
+        }
+
+        /**
+         * The iterator fails, the rest of the stream is not loaded.
+         */
+        private void stop() {
+            end = true;
+            for (Future<List<Object>> task : tasks) {
+                task.cancel(false);
+            }
+            tasks.clear();
+        }
+    }
+}
@@ -15,12 +15,15 @@
  */
 package org.yaml.snakeyaml;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -34,15 +37,19 @@ import org.yaml.snakeyaml.emitter.Emitable;
 import org.yaml.snakeyaml.emitter.Emitter;
 import org.yaml.snakeyaml.error.YAMLException;
 import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.YamlEventHandler;
 import org.yaml.snakeyaml.introspector.BeanAccess;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.parser.Parser;
 import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.parser.PipelinedParser;
+import org.yaml.snakeyaml.parser.YamlCursor;
 import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yaml.snakeyaml.resolver.Resolver;
+import org.yaml.snakeyaml.scanner.ScannerImpl;
 import org.yaml.snakeyaml.serializer.Serializer;
 
 /**
@@ -54,6 +61,7 @@ public class Yaml {
     protected BaseConstructor constructor;
     protected Representer representer;
     protected DumperOptions dumperOptions;
+    protected LoaderOptions loaderOptions;
 
     /**
      * Create Yaml instance. It is safe to create a few instances and use them
@@ -73,6 +81,17 @@ public class Yaml {
         this(new Constructor(), new Representer(), dumperOptions);
     }
 
+    /**
+     * Create Yaml instance.
+     * 
+     * @param loaderOptions
+     *            LoaderOptions to configure incoming documents
+     */
+    public Yaml(LoaderOptions loaderOptions) {
+        this(new Constructor(), new Representer(), new DumperOptions(), loaderOptions,
+                new Resolver());
+    }
+
     /**
      * Create Yaml instance. It is safe to create a few instances and use them
      * in different Threads.
@@ -151,6 +170,26 @@ public class Yaml {
      */
     public Yaml(BaseConstructor constructor, Representer representer, DumperOptions dumperOptions,
             Resolver resolver) {
+        this(constructor, representer, dumperOptions, new LoaderOptions(), resolver);
+    }
+
+    /**
+     * Create Yaml instance. It is safe to create a few instances and use them
+     * in different Threads.
+     * 
+     * @param constructor
+     *            BaseConstructor to construct incoming documents
+     * @param representer
+     *            Representer to emit outgoing objects
+     * @param dumperOptions
+     *            DumperOptions to configure outgoing objects
+     * @param loaderOptions
+     *            LoaderOptions to configure incoming documents
+     * @param resolver
+     *            Resolver to detect implicit type
+     */
+    public Yaml(BaseConstructor constructor, Representer representer, DumperOptions dumperOptions,
+            LoaderOptions loaderOptions, Resolver resolver) {
         if (!constructor.isExplicitPropertyUtils()) {
             constructor.setPropertyUtils(representer.getPropertyUtils());
         } else if (!representer.isExplicitPropertyUtils()) {
@@ -164,6 +203,7 @@ public class Yaml {
         representer.setTimeZone(dumperOptions.getTimeZone());
         this.representer = representer;
         this.dumperOptions = dumperOptions;
+        this.loaderOptions = loaderOptions;
         this.resolver = resolver;
         this.name = "Yaml:" + System.identityHashCode(this);
     }
@@ -366,7 +406,21 @@ public class Yaml {
      * @return parsed object
      */
     public Object load(String yaml) {
-        return loadFromReader(new StreamReader(yaml), Object.class);
+        return loadFromReader(createReader(yaml), Object.class);
+    }
+
+    /**
+     * Parse the only YAML document in memory and produce the corresponding
+     * Java object. The characters are read in place, the whole input is not
+     * copied. (Because the encoding in known BOM is not respected.)
+     * 
+     * @param yaml
+     *            YAML data to load from (BOM must not be present). It must
+     *            not be changed while it is parsed.
+     * @return parsed object
+     */
+    public Object load(CharSequence yaml) {
+        return loadFromReader(createReader(yaml), Object.class);
     }
 
     /**
@@ -378,7 +432,7 @@ public class Yaml {
      * @return parsed object
      */
     public Object load(InputStream io) {
-        return loadFromReader(new StreamReader(new UnicodeReader(io)), Object.class);
+        return loadFromReader(createReader(new UnicodeReader(io)), Object.class);
     }
 
     /**
@@ -390,7 +444,7 @@ public class Yaml {
      * @return parsed object
      */
     public Object load(Reader io) {
-        return loadFromReader(new StreamReader(io), Object.class);
+        return loadFromReader(createReader(io), Object.class);
     }
 
     /**
@@ -407,7 +461,7 @@ public class Yaml {
      */
     @SuppressWarnings("unchecked")
     public <T> T loadAs(Reader io, Class<T> type) {
-        return (T) loadFromReader(new StreamReader(io), type);
+        return (T) loadFromReader(createReader(io), type);
     }
 
     /**
@@ -424,7 +478,26 @@ public class Yaml {
      */
     @SuppressWarnings("unchecked")
     public <T> T loadAs(String yaml, Class<T> type) {
-        return (T) loadFromReader(new StreamReader(yaml), type);
+        return (T) loadFromReader(createReader(yaml), type);
+    }
+
+    /**
+     * Parse the only YAML document in memory and produce the corresponding
+     * Java object. The characters are read in place, the whole input is not
+     * copied. (Because the encoding in known BOM is not respected.)
+     * 
+     * @param <T>
+     *            Class is defined by the second argument
+     * @param yaml
+     *            YAML data to load from (BOM must not be present). It must
+     *            not be changed while it is parsed.
+     * @param type
+     *            Class of the object to be created
+     * @return parsed object
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T loadAs(CharSequence yaml, Class<T> type) {
+        return (T) loadFromReader(createReader(yaml), type);
     }
 
     /**
@@ -441,13 +514,114 @@ public class Yaml {
      */
     @SuppressWarnings("unchecked")
     public <T> T loadAs(InputStream input, Class<T> type) {
-        return (T) loadFromReader(new StreamReader(new UnicodeReader(input)), type);
+        return (T) loadFromReader(createReader(new UnicodeReader(input)), type);
+    }
+
+    /**
+     * Parse the only YAML document in a file and produce the corresponding
+     * Java object. The file is mapped into memory.
+     * 
+     * @param file
+     *            data to load from (BOM is respected and removed)
+     * @return parsed object
+     */
+    public Object load(File file) {
+        return loadFromReader(createReader(map(file)), Object.class);
+    }
+
+    /**
+     * Parse the only YAML document in a file channel and produce the
+     * corresponding Java object. The data from the current position to the
+     * end is mapped into memory. The channel is not closed.
+     * 
+     * @param channel
+     *            data to load from (BOM is respected and removed)
+     * @return parsed object
+     */
+    public Object load(FileChannel channel) {
+        return loadFromReader(createReader(map(channel)), Object.class);
+    }
+
+    /**
+     * Parse the only YAML document in a file and produce the corresponding
+     * Java object. The file is mapped into memory.
+     * 
+     * @param <T>
+     *            Class is defined by the second argument
+     * @param file
+     *            data to load from (BOM is respected and removed)
+     * @param type
+     *            Class of the object to be created
+     * @return parsed object
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T loadAs(File file, Class<T> type) {
+        return (T) loadFromReader(createReader(map(file)), type);
+    }
+
+    /**
+     * Parse the only YAML document in a file channel and produce the
+     * corresponding Java object. The data from the current position to the
+     * end is mapped into memory. The channel is not closed.
+     * 
+     * @param <T>
+     *            Class is defined by the second argument
+     * @param channel
+     *            data to load from (BOM is respected and removed)
+     * @param type
+     *            Class of the object to be created
+     * @return parsed object
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T loadAs(FileChannel channel, Class<T> type) {
+        return (T) loadFromReader(createReader(map(channel)), type);
+    }
+
+    private StreamReader createReader(CharSequence yaml) {
+        StreamReader reader = new StreamReader(yaml);
+        reader.setMarkMode(loaderOptions.getMarkMode());
+        return reader;
+    }
+
+    private StreamReader createReader(Reader yaml) {
+        StreamReader reader = new StreamReader(yaml);
+        reader.setMarkMode(loaderOptions.getMarkMode());
+        return reader;
+    }
+
+    private ScannerImpl createScanner(StreamReader reader) {
+        ScannerImpl scanner = new ScannerImpl(reader);
+        scanner.setSymbolTable(loaderOptions.getSymbolTable());
+        scanner.setLargeScalarLimit(loaderOptions.getLargeScalarLimit());
+        return scanner;
+    }
+
+    private ParserImpl createParser(StreamReader reader) {
+        return new ParserImpl(createScanner(reader));
     }
 
     private Object loadFromReader(StreamReader sreader, Class<?> type) {
-        Composer composer = new Composer(new ParserImpl(sreader), resolver);
+        if (loaderOptions.isPipelined()) {
+            PipelinedParser parser = new PipelinedParser(createScanner(sreader));
+            try {
+                constructor.setComposer(new Composer(parser, resolver));
+                return releaseSource(sreader, constructor.getSingleData(type));
+            } finally {
+                parser.close();
+            }
+        }
+        Composer composer = new Composer(createParser(sreader), resolver);
         constructor.setComposer(composer);
-        return constructor.getSingleData(type);
+        return releaseSource(sreader, constructor.getSingleData(type));
+    }
+
+    /**
+     * The Marks kept by the loaded objects must not hold the input in memory
+     * (the Marks of an error keep it to show the snippet).
+     */
+    private static Object releaseSource(StreamReader reader, Object data) {
+        reader.releaseSource();
+        return data;
     }
 
     /**
@@ -460,7 +634,27 @@ public class Yaml {
      *         sequence
      */
     public Iterable<Object> loadAll(Reader yaml) {
-        Composer composer = new Composer(new ParserImpl(new StreamReader(yaml)), resolver);
+        return loadAll(createReader(yaml));
+    }
+
+    /**
+     * Load the documents of a part of a stream (see ParallelLoader).
+     * 
+     * @param yaml
+     *            the part which is a valid stream itself
+     * @param index
+     *            the index of the part in the whole stream for the Marks
+     * @param line
+     *            the line of the part in the whole stream for the Marks
+     */
+    Iterable<Object> loadAll(Reader yaml, int index, int line) {
+        StreamReader reader = createReader(yaml);
+        reader.setStartPosition(index, line);
+        return loadAll(reader);
+    }
+
+    private Iterable<Object> loadAll(StreamReader reader) {
+        Composer composer = new Composer(createParser(reader), resolver);
         constructor.setComposer(composer);
         Iterator<Object> result = new Iterator<Object>() {
             public boolean hasNext() {
@@ -517,6 +711,66 @@ public class Yaml {
         return loadAll(new UnicodeReader(yaml));
     }
 
+    /**
+     * Parse all YAML documents in a file and produce corresponding Java
+     * objects. The file is mapped into memory. The documents are parsed only
+     * when the iterator is invoked.
+     * 
+     * @param file
+     *            YAML data to load from (BOM is respected and ignored)
+     * @return an iterator over the parsed Java objects in this file in proper
+     *         sequence
+     */
+    public Iterable<Object> loadAll(File file) {
+        return loadAll(map(file));
+    }
+
+    /**
+     * Parse all YAML documents in a file channel and produce corresponding
+     * Java objects. The data from the current position to the end is mapped
+     * into memory. The channel is not closed. The documents are parsed only
+     * when the iterator is invoked.
+     * 
+     * @param channel
+     *            YAML data to load from (BOM is respected and ignored)
+     * @return an iterator over the parsed Java objects in this channel in
+     *         proper sequence
+     */
+    public Iterable<Object> loadAll(FileChannel channel) {
+        return loadAll(map(channel));
+    }
+
+    /**
+     * Map the whole file into memory. The mapping stays valid after the file
+     * is closed.
+     */
+    private static UnicodeReader map(File file) {
+        try {
+            FileInputStream input = new FileInputStream(file);
+            try {
+                return map(input.getChannel());
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    private static UnicodeReader map(FileChannel channel) {
+        try {
+            long position = channel.position();
+            long size = channel.size() - position;
+            if (size > Integer.MAX_VALUE) {
+                throw new YAMLException("File is too large to be mapped: " + size + " bytes.");
+            }
+            return new UnicodeReader(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.max(size, 0)));
+        } catch (IOException e) {
+            throw new YAMLException(e);
+        }
+    }
+
     /**
      * Parse the first YAML document in a stream and produce the corresponding
      * representation tree. (This is the opposite of the represent() method)
@@ -528,11 +782,36 @@ public class Yaml {
      * @return parsed root Node for the specified YAML document
      */
     public Node compose(Reader yaml) {
-        Composer composer = new Composer(new ParserImpl(new StreamReader(yaml)), resolver);
+        Composer composer = new Composer(createParser(createReader(yaml)), resolver);
         constructor.setComposer(composer);
         return composer.getSingleNode();
     }
 
+    /**
+     * Parse the first YAML document in a file and produce the corresponding
+     * representation tree. The file is mapped into memory.
+     * 
+     * @param file
+     *            YAML document
+     * @return parsed root Node for the specified YAML document
+     */
+    public Node compose(File file) {
+        return compose(map(file));
+    }
+
+    /**
+     * Parse the first YAML document in a file channel and produce the
+     * corresponding representation tree. The data from the current position to
+     * the end is mapped into memory. The channel is not closed.
+     * 
+     * @param channel
+     *            YAML document
+     * @return parsed root Node for the specified YAML document
+     */
+    public Node compose(FileChannel channel) {
+        return compose(map(channel));
+    }
+
     /**
      * Parse all YAML documents in a stream and produce corresponding
      * representation trees.
@@ -543,7 +822,7 @@ public class Yaml {
      * @return parsed root Nodes for all the specified YAML documents
      */
     public Iterable<Node> composeAll(Reader yaml) {
-        final Composer composer = new Composer(new ParserImpl(new StreamReader(yaml)), resolver);
+        final Composer composer = new Composer(createParser(createReader(yaml)), resolver);
         constructor.setComposer(composer);
         Iterator<Node> result = new Iterator<Node>() {
             public boolean hasNext() {
@@ -624,7 +903,7 @@ public class Yaml {
      * @return parsed events
      */
     public Iterable<Event> parse(Reader yaml) {
-        final Parser parser = new ParserImpl(new StreamReader(yaml));
+        final Parser parser = createParser(createReader(yaml));
         Iterator<Event> result = new Iterator<Event>() {
             public boolean hasNext() {
                 return parser.peekEvent() != null;
@@ -641,6 +920,32 @@ public class Yaml {
         return new EventIterable(result);
     }
 
+    /**
+     * Parse a YAML stream and pass the parsing events to the handler. No Event
+     * is created for every node: the handler gets the properties of the events
+     * and it is faster than iterating over parse(Reader).
+     * 
+     * @param yaml
+     *            YAML document(s)
+     * @param handler
+     *            receives the events
+     */
+    public void parse(Reader yaml, YamlEventHandler handler) {
+        createParser(createReader(yaml)).parse(handler);
+    }
+
+    /**
+     * Read a YAML stream with a cursor, without creating the nodes and the
+     * objects.
+     * 
+     * @param yaml
+     *            YAML document(s)
+     * @return the cursor before the first event
+     */
+    public YamlCursor cursor(Reader yaml) {
+        return new YamlCursor(createParser(createReader(yaml)));
+    }
+
     private static class EventIterable implements Iterable<Event> {
         private Iterator<Event> iterator;
 
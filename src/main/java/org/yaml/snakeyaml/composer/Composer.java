@@ -36,6 +36,8 @@ import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.reader.DirectCharSequence;
+import org.yaml.snakeyaml.reader.SourceSpan;
 import org.yaml.snakeyaml.resolver.Resolver;
 
 /**
@@ -164,14 +166,23 @@ public class Composer {
         boolean resolved = false;
         Tag nodeTag;
         if (tag == null || tag.equals("!")) {
-            nodeTag = resolver.resolve(NodeId.scalar, ev.getValue(), ev.getImplicit()
-                    .canOmitTagInPlainScalar());
+            boolean implicit = ev.getImplicit().canOmitTagInPlainScalar();
+            // a large scalar is never plain, its String is not created to
+            // resolve the tag
+            String value = !implicit && ev.getValueSequence() instanceof DirectCharSequence ? null
+                    : ev.getValue();
+            nodeTag = resolver.resolve(NodeId.scalar, value, implicit);
             resolved = true;
         } else {
             nodeTag = new Tag(tag);
         }
-        Node node = new ScalarNode(nodeTag, resolved, ev.getValue(), ev.getStartMark(),
-                ev.getEndMark(), ev.getStyle());
+        // the node does not keep the whole source with a span of it
+        CharSequence value = ev.getValueSequence();
+        if (value instanceof SourceSpan) {
+            value = ev.getValue();
+        }
+        Node node = new ScalarNode(nodeTag, resolved, value, ev.getStartMark(), ev.getEndMark(),
+                ev.getStyle());
         if (anchor != null) {
             anchors.put(anchor, node);
         }
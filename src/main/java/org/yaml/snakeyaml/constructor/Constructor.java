@@ -373,7 +373,10 @@ public class Constructor extends SafeConstructor {
             ScalarNode node = (ScalarNode) nnode;
             Class<?> type = node.getType();
             Object result;
-            if (type.isPrimitive() || type == String.class || Number.class.isAssignableFrom(type)
+            if (ScalarStreams.isStreamType(type, node.getTag())) {
+                // the value may be too large for a String
+                result = ScalarStreams.construct(type, node);
+            } else if (type.isPrimitive() || type == String.class || Number.class.isAssignableFrom(type)
                     || type == Boolean.class || Date.class.isAssignableFrom(type)
                     || type == Character.class || type == BigInteger.class
                     || type == BigDecimal.class || Enum.class.isAssignableFrom(type)
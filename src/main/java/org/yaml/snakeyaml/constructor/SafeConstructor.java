@@ -15,6 +15,7 @@
  */
 package org.yaml.snakeyaml.constructor;
 
+import java.io.InputStream;
 import java.math.BigInteger;
 import java.text.NumberFormat;
 import java.text.ParseException;
@@ -40,6 +41,7 @@ import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.DirectCharSequence;
 
 /**
  * Construct standard Java classes
@@ -267,7 +269,14 @@ public class SafeConstructor extends BaseConstructor {
 
     public class ConstructYamlBinary extends AbstractConstruct {
         public Object construct(Node node) {
-            byte[] decoded = Base64Coder.decode(constructScalar((ScalarNode) node).toString()
+            ScalarNode scalar = (ScalarNode) node;
+            if (scalar.getType() == InputStream.class) {
+                return ScalarStreams.construct(InputStream.class, scalar);
+            } else if (scalar.getValueSequence() instanceof DirectCharSequence) {
+                // a large value is decoded without a String
+                return ScalarStreams.construct(byte[].class, scalar);
+            }
+            byte[] decoded = Base64Coder.decode(constructScalar(scalar).toString()
                     .toCharArray());
             return decoded;
         }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.constructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.DirectCharSequence;
+
+/**
+ * Create the JavaBean properties of the types Reader, InputStream and byte[]
+ * from a scalar without creating a String of a large value (see
+ * <code>LoaderOptions.setLargeScalarLimit()</code>). A Reader is created from
+ * a text scalar, InputStream and byte[] from a !!binary scalar. The Base64
+ * data is checked as by <code>Base64Coder.decode()</code> for a small value:
+ * the blanks and the line breaks are not allowed.
+ */
+final class ScalarStreams {
+
+    private ScalarStreams() {
+    }
+
+    static boolean isStreamType(Class<?> type, Tag tag) {
+        if (Tag.BINARY.equals(tag)) {
+            return type == InputStream.class || type == byte[].class;
+        }
+        return type == Reader.class;
+    }
+
+    static Object construct(Class<?> type, ScalarNode node) {
+        CharSequence value = node.getValueSequence();
+        Reader reader;
+        if (value instanceof DirectCharSequence) {
+            reader = ((DirectCharSequence) value).openReader();
+        } else {
+            reader = new StringReader(node.getValue());
+        }
+        if (type == Reader.class) {
+            return reader;
+        }
+        if (value.length() % 4 != 0) {
+            // the same check as in Base64Coder
+            throw new YAMLException(
+                    "Length of Base64 encoded input string is not a multiple of 4.");
+        }
+        InputStream input = new Base64InputStream(reader);
+        if (type == InputStream.class) {
+            return input;
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream(value.length() / 4 * 3);
+        byte[] buffer = new byte[4096];
+        try {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new YAMLException(e.getMessage(), e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decode the Base64 characters of the Reader in blocks of whole quads.
+     */
+    private static class Base64InputStream extends InputStream {
+        private final Reader reader;
+        private final char[] buffer = new char[4096];
+        // the encoded characters, the last ones may wait for the rest of their
+        // quad
+        private final char[] chars = new char[buffer.length + 4];
+        private int length = 0;
+        private byte[] decoded = new byte[0];
+        private int position = 0;
+        private boolean end = false;
+
+        public Base64InputStream(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return decoded[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            } else if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(len, decoded.length - position);
+            System.arraycopy(decoded, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        /**
+         * @return false at the end of the data
+         */
+        private boolean fill() throws IOException {
+            while (position == decoded.length && !end) {
+                int read = reader.read(buffer, 0, buffer.length);
+                if (read == -1) {
+                    end = true;
+                } else {
+                    System.arraycopy(buffer, 0, chars, length, read);
+                    length += read;
+                }
+                // the whole quads are decoded, all the rest at the end
+                int quads = end ? length : length - length % 4;
+                try {
+                    decoded = Base64Coder.decode(chars, 0, quads);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage());
+                }
+                System.arraycopy(chars, quads, chars, 0, length - quads);
+                length -= quads;
+                position = 0;
+            }
+            return position < decoded.length;
+        }
+    }
+}
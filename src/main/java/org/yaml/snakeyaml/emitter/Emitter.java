@@ -17,7 +17,6 @@ package org.yaml.snakeyaml.emitter;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -48,6 +47,8 @@ import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.scanner.Constant;
 import org.yaml.snakeyaml.util.ArrayStack;
+import org.yaml.snakeyaml.util.IntMap;
+import org.yaml.snakeyaml.util.IntStack;
 
 /**
  * <pre>
@@ -60,7 +61,7 @@ import org.yaml.snakeyaml.util.ArrayStack;
  * </pre>
  */
 public final class Emitter implements Emitable {
-    private static final Map<Character, String> ESCAPE_REPLACEMENTS = new HashMap<Character, String>();
+    private static final IntMap<String> ESCAPE_REPLACEMENTS = new IntMap<String>(16);
     public static final int MIN_INDENT = 1;
     public static final int MAX_INDENT = 10;
 
@@ -104,9 +105,10 @@ public final class Emitter implements Emitable {
     private final Queue<Event> events;
     private Event event;
 
-    // The current indentation level and the stack of previous indents.
-    private final ArrayStack<Integer> indents;
-    private Integer indent;
+    // The current indentation level (-1 if not defined yet) and the stack of
+    // previous indents.
+    private final IntStack indents;
+    private int indent;
 
     // Flow level.
     private int flowLevel;
@@ -162,8 +164,8 @@ public final class Emitter implements Emitable {
         this.events = new ArrayBlockingQueue<Event>(100);
         this.event = null;
         // The current indentation level and the stack of previous indents.
-        this.indents = new ArrayStack<Integer>(10);
-        this.indent = null;
+        this.indents = new IntStack(10);
+        this.indent = -1;
         // Flow level.
         this.flowLevel = 0;
         // Contexts.
@@ -260,7 +262,7 @@ public final class Emitter implements Emitable {
 
     private void increaseIndent(boolean flow, boolean indentless) {
         indents.push(indent);
-        if (indent == null) {
+        if (indent == -1) {
             if (flow) {
                 indent = bestIndent;
             } else {
@@ -1093,7 +1095,7 @@ public final class Emitter implements Emitable {
 
     void writeIndent() throws IOException {
         int indent;
-        if (this.indent != null) {
+        if (this.indent != -1) {
             indent = this.indent;
         } else {
             indent = 0;
@@ -1215,11 +1217,13 @@ public final class Emitter implements Emitable {
         int start = 0;
         int end = 0;
         while (end <= text.length()) {
-            Character ch = null;
-            if (end < text.length()) {
+            // the end of the text is processed as a special character
+            boolean last = end == text.length();
+            char ch = 0;
+            if (!last) {
                 ch = text.charAt(end);
             }
-            if (ch == null || "\"\\\u0085\u2028\u2029\uFEFF".indexOf(ch) != -1
+            if (last || "\"\\\u0085\u2028\u2029\uFEFF".indexOf(ch) != -1
                     || !('\u0020' <= ch && ch <= '\u007E')) {
                 if (start < end) {
                     int len = end - start;
@@ -1227,10 +1231,11 @@ public final class Emitter implements Emitable {
                     stream.write(text, start, len);
                     start = end;
                 }
-                if (ch != null) {
+                if (!last) {
                     String data;
-                    if (ESCAPE_REPLACEMENTS.containsKey(ch)) {
-                        data = "\\" + ESCAPE_REPLACEMENTS.get(ch);
+                    String replacement = ESCAPE_REPLACEMENTS.get(ch);
+                    if (replacement != null) {
+                        data = "\\" + replacement;
                     } else if (!this.allowUnicode || !StreamReader.isPrintable(ch)) {
                         // if !allowUnicode or the character is not printable,
                         // we must encode it
@@ -1239,7 +1244,7 @@ public final class Emitter implements Emitable {
                             data = "\\x" + s.substring(s.length() - 2);
                         } else if (ch >= '\uD800' && ch <= '\uDBFF') {
                             if (end + 1 < text.length()) {
-                                Character ch2 = text.charAt(++end);
+                                char ch2 = text.charAt(++end);
                                 String s = "000" + Long.toHexString(Character.toCodePoint(ch, ch2));
                                 data = "\\U" + s.substring(s.length() - 8);
                             } else {
@@ -15,6 +15,8 @@
  */
 package org.yaml.snakeyaml.error;
 
+import java.nio.CharBuffer;
+
 import org.yaml.snakeyaml.scanner.Constant;
 
 /**
@@ -22,14 +24,29 @@ import org.yaml.snakeyaml.scanner.Constant;
  * does not use it for any other purposes.
  */
 public final class Mark {
+    /**
+     * Shared by all the tokens, events and nodes when the Marks are not
+     * created (see <code>LoaderOptions.MarkMode.NONE</code>)
+     */
+    public static final Mark UNKNOWN = new Mark("<unknown>", -1, -1, -1, (MarkSource) null);
+
     private String name;
     private int index;
     private int line;
     private int column;
-    private String buffer;
+    private char[] buffer;
     private int pointer;
+    private MarkSource source;
 
     public Mark(String name, int index, int line, int column, String buffer, int pointer) {
+        this(name, index, line, column, buffer == null ? null : buffer.toCharArray(), pointer);
+    }
+
+    /**
+     * The buffer is not copied. It must not be changed after the Mark is
+     * created.
+     */
+    public Mark(String name, int index, int line, int column, char[] buffer, int pointer) {
         super();
         this.name = name;
         this.index = index;
@@ -39,12 +56,32 @@ public final class Mark {
         this.pointer = pointer;
     }
 
+    /**
+     * Create a Mark which keeps only the position. The snippet is built from
+     * the source (if it is given and not released yet).
+     * 
+     * @param source
+     *            the whole input, the index is the position in it
+     */
+    public Mark(String name, int index, int line, int column, MarkSource source) {
+        this(name, index, line, column, (char[]) null, 0);
+        this.source = source;
+    }
+
     private boolean isLineBreak(char ch) {
         return Constant.NULL_OR_LINEBR.has(ch);
     }
 
     public String get_snippet(int indent, int max_length) {
-        if (buffer == null) {
+        CharSequence buffer;
+        int pointer;
+        if (this.buffer != null) {
+            buffer = CharBuffer.wrap(this.buffer);
+            pointer = this.pointer;
+        } else if (source != null && source.getText() != null) {
+            buffer = source.getText();
+            pointer = index;
+        } else {
             return null;
         }
         float half = max_length / 2 - 1;
@@ -68,7 +105,7 @@ public final class Mark {
                 break;
             }
         }
-        String snippet = buffer.substring(start, end);
+        String snippet = buffer.subSequence(start, end).toString();
         StringBuilder result = new StringBuilder();
         for (int i = 0; i < indent; i++) {
             result.append(" ");
@@ -93,6 +130,14 @@ public final class Mark {
         String snippet = get_snippet();
         StringBuilder where = new StringBuilder(" in ");
         where.append(name);
+        if (line < 0) {
+            // only the index is known
+            if (index >= 0) {
+                where.append(", index ");
+                where.append(index);
+            }
+            return where.toString();
+        }
         where.append(", line ");
         where.append(line + 1);
         where.append(", column ");
@@ -109,24 +154,32 @@ public final class Mark {
     }
 
     /**
-     * starts with 0
+     * starts with 0, -1 when the line is not known
      */
     public int getLine() {
         return line;
     }
 
     /**
-     * starts with 0
+     * starts with 0, -1 when the column is not known
      */
     public int getColumn() {
         return column;
     }
 
     /**
-     * starts with 0
+     * starts with 0, -1 for <code>UNKNOWN</code>
      */
     public int getIndex() {
         return index;
     }
 
+    /**
+     * @return the shared input to build the snippet from or <code>null</code>
+     *         when the Mark keeps its own buffer or no source is available
+     */
+    public MarkSource getSource() {
+        return source;
+    }
+
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.error;
+
+/**
+ * The input shared by the Marks which keep only the position. The snippet is
+ * built from it when it is requested. After the source is released the Marks
+ * still report the position, but without the snippet.
+ */
+public final class MarkSource {
+    private CharSequence text;
+
+    public MarkSource(CharSequence text) {
+        if (text == null) {
+            throw new NullPointerException("Text must be provided.");
+        }
+        this.text = text;
+    }
+
+    /**
+     * @return the input or <code>null</code> when the source is released
+     */
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * Drop the reference to the input. It is shared by all the Marks of the
+     * same stream.
+     */
+    public void release() {
+        this.text = null;
+    }
+
+    public boolean isReleased() {
+        return text == null;
+    }
+}
@@ -21,12 +21,12 @@ import org.yaml.snakeyaml.error.Mark;
  * Base class for the start events of the collection nodes.
  */
 public abstract class CollectionStartEvent extends NodeEvent {
-    private final String tag;
+    private String tag;
     // The implicit flag of a collection start event indicates if the tag may be
     // omitted when the collection is emitted
-    private final boolean implicit;
+    private boolean implicit;
     // flag indicates if a collection is block or flow
-    private final Boolean flowStyle;
+    private Boolean flowStyle;
 
     public CollectionStartEvent(String anchor, String tag, boolean implicit, Mark startMark,
             Mark endMark, Boolean flowStyle) {
@@ -36,6 +36,14 @@ public abstract class CollectionStartEvent extends NodeEvent {
         this.flowStyle = flowStyle;
     }
 
+    void refill(String anchor, String tag, boolean implicit, Mark startMark, Mark endMark,
+            Boolean flowStyle) {
+        refill(anchor, startMark, endMark);
+        this.tag = tag;
+        this.implicit = implicit;
+        this.flowStyle = flowStyle;
+    }
+
     /**
      * Tag of this collection.
      * 
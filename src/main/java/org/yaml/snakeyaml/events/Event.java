@@ -26,14 +26,22 @@ public abstract class Event {
         Alias, DocumentEnd, DocumentStart, MappingEnd, MappingStart, Scalar, SequenceEnd, SequenceStart, StreamEnd, StreamStart
     }
 
-    private final Mark startMark;
-    private final Mark endMark;
+    private Mark startMark;
+    private Mark endMark;
 
     public Event(Mark startMark, Mark endMark) {
         this.startMark = startMark;
         this.endMark = endMark;
     }
 
+    /*
+     * Refill a reused event (see EventFactory)
+     */
+    void refill(Mark startMark, Mark endMark) {
+        this.startMark = startMark;
+        this.endMark = endMark;
+    }
+
     public String toString() {
         return "<" + this.getClass().getName() + "(" + getArguments() + ")>";
     }
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.events;
+
+import org.yaml.snakeyaml.error.Mark;
+
+/**
+ * Creates the node events for a parser. When the events are reused there is
+ * only one instance per kind of event: it is refilled every time an event of
+ * that kind is created, and the previous event of the same kind is lost.
+ */
+public final class EventFactory {
+    private final boolean reuse;
+    private ScalarEvent scalar;
+    private AliasEvent alias;
+    private SequenceStartEvent sequenceStart;
+    private MappingStartEvent mappingStart;
+    private SequenceEndEvent sequenceEnd;
+    private MappingEndEvent mappingEnd;
+
+    /**
+     * @param reuse
+     *            <code>true</code> to refill one event per kind,
+     *            <code>false</code> to create a new event every time
+     */
+    public EventFactory(boolean reuse) {
+        this.reuse = reuse;
+    }
+
+    public boolean isReuse() {
+        return reuse;
+    }
+
+    public ScalarEvent scalar(String anchor, String tag, ImplicitTuple implicit,
+            CharSequence value, Mark startMark, Mark endMark, Character style) {
+        if (!reuse) {
+            return new ScalarEvent(anchor, tag, implicit, value, startMark, endMark, style);
+        }
+        if (scalar == null) {
+            scalar = new ScalarEvent(anchor, tag, implicit, value, startMark, endMark, style);
+        } else {
+            scalar.refill(anchor, tag, implicit, value, startMark, endMark, style);
+        }
+        return scalar;
+    }
+
+    public AliasEvent alias(String anchor, Mark startMark, Mark endMark) {
+        if (!reuse) {
+            return new AliasEvent(anchor, startMark, endMark);
+        }
+        if (alias == null) {
+            alias = new AliasEvent(anchor, startMark, endMark);
+        } else {
+            alias.refill(anchor, startMark, endMark);
+        }
+        return alias;
+    }
+
+    public SequenceStartEvent sequenceStart(String anchor, String tag, boolean implicit,
+            Mark startMark, Mark endMark, Boolean flowStyle) {
+        if (!reuse) {
+            return new SequenceStartEvent(anchor, tag, implicit, startMark, endMark, flowStyle);
+        }
+        if (sequenceStart == null) {
+            sequenceStart = new SequenceStartEvent(anchor, tag, implicit, startMark, endMark,
+                    flowStyle);
+        } else {
+            sequenceStart.refill(anchor, tag, implicit, startMark, endMark, flowStyle);
+        }
+        return sequenceStart;
+    }
+
+    public MappingStartEvent mappingStart(String anchor, String tag, boolean implicit,
+            Mark startMark, Mark endMark, Boolean flowStyle) {
+        if (!reuse) {
+            return new MappingStartEvent(anchor, tag, implicit, startMark, endMark, flowStyle);
+        }
+        if (mappingStart == null) {
+            mappingStart = new MappingStartEvent(anchor, tag, implicit, startMark, endMark,
+                    flowStyle);
+        } else {
+            mappingStart.refill(anchor, tag, implicit, startMark, endMark, flowStyle);
+        }
+        return mappingStart;
+    }
+
+    public SequenceEndEvent sequenceEnd(Mark startMark, Mark endMark) {
+        if (!reuse) {
+            return new SequenceEndEvent(startMark, endMark);
+        }
+        if (sequenceEnd == null) {
+            sequenceEnd = new SequenceEndEvent(startMark, endMark);
+        } else {
+            sequenceEnd.refill(startMark, endMark);
+        }
+        return sequenceEnd;
+    }
+
+    public MappingEndEvent mappingEnd(Mark startMark, Mark endMark) {
+        if (!reuse) {
+            return new MappingEndEvent(startMark, endMark);
+        }
+        if (mappingEnd == null) {
+            mappingEnd = new MappingEndEvent(startMark, endMark);
+        } else {
+            mappingEnd.refill(startMark, endMark);
+        }
+        return mappingEnd;
+    }
+}
@@ -22,13 +22,18 @@ import org.yaml.snakeyaml.error.Mark;
  */
 public abstract class NodeEvent extends Event {
 
-    private final String anchor;
+    private String anchor;
 
     public NodeEvent(String anchor, Mark startMark, Mark endMark) {
         super(startMark, endMark);
         this.anchor = anchor;
     }
 
+    void refill(String anchor, Mark startMark, Mark endMark) {
+        refill(startMark, endMark);
+        this.anchor = anchor;
+    }
+
     /**
      * Node anchor by which this node might later be referenced by a
      * {@link AliasEvent}.
@@ -21,18 +21,26 @@ import org.yaml.snakeyaml.error.Mark;
  * Marks a scalar value.
  */
 public final class ScalarEvent extends NodeEvent {
-    private final String tag;
+    private String tag;
     // style flag of a scalar event indicates the style of the scalar. Possible
     // values are None, '', '\'', '"', '|', '>'
-    private final Character style;
-    private final String value;
+    private Character style;
+    // String or a span of the source (the String is created on demand)
+    private CharSequence value;
+    // the String of the value, it is created only once
+    private volatile String string;
     // The implicit flag of a scalar event is a pair of boolean values that
     // indicate if the tag may be omitted when the scalar is emitted in a plain
     // and non-plain style correspondingly.
-    private final ImplicitTuple implicit;
+    private ImplicitTuple implicit;
 
     public ScalarEvent(String anchor, String tag, ImplicitTuple implicit, String value,
             Mark startMark, Mark endMark, Character style) {
+        this(anchor, tag, implicit, (CharSequence) value, startMark, endMark, style);
+    }
+
+    public ScalarEvent(String anchor, String tag, ImplicitTuple implicit, CharSequence value,
+            Mark startMark, Mark endMark, Character style) {
         super(anchor, startMark, endMark);
         this.tag = tag;
         this.implicit = implicit;
@@ -40,6 +48,16 @@ public final class ScalarEvent extends NodeEvent {
         this.style = style;
     }
 
+    void refill(String anchor, String tag, ImplicitTuple implicit, CharSequence value,
+            Mark startMark, Mark endMark, Character style) {
+        refill(anchor, startMark, endMark);
+        this.tag = tag;
+        this.implicit = implicit;
+        this.value = value;
+        this.string = null;
+        this.style = style;
+    }
+
     /**
      * Tag of this scalar.
      * 
@@ -82,6 +100,22 @@ public final class ScalarEvent extends NodeEvent {
      * @return Value as Unicode string.
      */
     public String getValue() {
+        String result = this.string;
+        if (result == null) {
+            // two threads may create the same String, it does not matter
+            result = this.value.toString();
+            this.string = result;
+        }
+        return result;
+    }
+
+    /**
+     * The value without creating a String when it is a span of the source.
+     * Skipped scalars do not need the String.
+     * 
+     * @return Value as Unicode characters.
+     */
+    public CharSequence getValueSequence() {
         return this.value;
     }
 
@@ -91,7 +125,7 @@ public final class ScalarEvent extends NodeEvent {
 
     @Override
     protected String getArguments() {
-        return super.getArguments() + ", tag=" + tag + ", " + implicit + ", value=" + value;
+        return super.getArguments() + ", tag=" + tag + ", " + implicit + ", value=" + getValue();
     }
 
     @Override
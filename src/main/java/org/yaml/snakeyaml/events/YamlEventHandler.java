@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.events;
+
+import java.util.Map;
+
+import org.yaml.snakeyaml.DumperOptions.Version;
+
+/**
+ * Receives the events of a YAML stream one by one (see
+ * <code>Yaml.parse(Reader, YamlEventHandler)</code>). The arguments are the
+ * properties of the corresponding events. A value is valid only during the
+ * call: the characters of a scalar may be a span of the parser buffer and must
+ * be copied (toString()) to be kept. An exception thrown by the handler stops
+ * the parsing.
+ */
+public interface YamlEventHandler {
+
+    void onStreamStart();
+
+    /**
+     * @param explicit
+     *            <code>true</code> when the document starts with '---'
+     * @param version
+     *            the version from the %YAML directive or <code>null</code>
+     * @param tags
+     *            the tag handles of the document
+     */
+    void onDocumentStart(boolean explicit, Version version, Map<String, String> tags);
+
+    void onDocumentEnd(boolean explicit);
+
+    /**
+     * @param anchor
+     *            the anchor or <code>null</code>
+     * @param tag
+     *            the explicit tag or <code>null</code>
+     * @param implicit
+     *            whether the tag may be omitted (see ScalarEvent)
+     * @param value
+     *            the value without quotes and escaping
+     * @param style
+     *            the style of the scalar (see ScalarEvent.getStyle())
+     */
+    void onScalar(String anchor, String tag, ImplicitTuple implicit, CharSequence value,
+            Character style);
+
+    void onAlias(String anchor);
+
+    void onSequenceStart(String anchor, String tag, boolean implicit, Boolean flowStyle);
+
+    void onSequenceEnd();
+
+    void onMappingStart(String anchor, String tag, boolean implicit, Boolean flowStyle);
+
+    void onMappingEnd();
+
+    void onStreamEnd();
+}
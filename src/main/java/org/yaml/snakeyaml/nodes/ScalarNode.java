@@ -25,7 +25,9 @@ import org.yaml.snakeyaml.error.Mark;
  */
 public class ScalarNode extends Node {
     private Character style;
-    private String value;
+    // String or the content of a large scalar (see DirectCharSequence), the
+    // Composer does not keep a span of the source in a node
+    private final CharSequence value;
 
     public ScalarNode(Tag tag, String value, Mark startMark, Mark endMark, Character style) {
         this(tag, true, value, startMark, endMark, style);
@@ -33,6 +35,11 @@ public class ScalarNode extends Node {
 
     public ScalarNode(Tag tag, boolean resolved, String value, Mark startMark, Mark endMark,
             Character style) {
+        this(tag, resolved, (CharSequence) value, startMark, endMark, style);
+    }
+
+    public ScalarNode(Tag tag, boolean resolved, CharSequence value, Mark startMark,
+            Mark endMark, Character style) {
         super(tag, startMark, endMark);
         if (value == null) {
             throw new NullPointerException("value in a Node is required.");
@@ -59,11 +66,22 @@ public class ScalarNode extends Node {
     }
 
     /**
-     * Value of this scalar.
+     * Value of this scalar. The String of a large scalar is created on every
+     * call, it should be read with <code>getValueSequence()</code>.
      * 
      * @return Scalar's value.
      */
     public String getValue() {
+        return this.value.toString();
+    }
+
+    /**
+     * Value of this scalar without creating a String when it is the content of
+     * a large scalar.
+     * 
+     * @return Scalar's characters.
+     */
+    public CharSequence getValueSequence() {
         return value;
     }
 
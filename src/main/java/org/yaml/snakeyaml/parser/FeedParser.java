@@ -0,0 +1,373 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.reader.NeedMoreInputException;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.scanner.Constant;
+import org.yaml.snakeyaml.scanner.ScannerImpl;
+
+/**
+ * Non-blocking parser. The input is given in parts with
+ * <code>feed()</code> as soon as it arrives (for instance from a non-blocking
+ * socket), the events are taken as soon as they are complete:
+ * 
+ * <pre>
+ * FeedParser parser = new FeedParser();
+ * parser.feed(bytes);
+ * while (parser.next() == FeedParser.Status.EVENT) {
+ *     Event event = parser.getEvent();
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * The encoding is detected by the BOM as for an <code>InputStream</code>.
+ * </p>
+ * <p>
+ * The event is parsed with the ordinary ParserImpl. When it requires the input
+ * which has not arrived yet, the scanner, the parser and the reader return to
+ * the state before the event. The attempt is repeated when the input which has
+ * arrived since may complete it, so a complete event is never held back. A
+ * scalar or a comment which is split over many parts is scanned again only
+ * when a character which may end it arrives (a closing quote, a line which is
+ * less indented than a block scalar, a line break after a comment and so on)
+ * or when the input since the beginning of the event has doubled. An error
+ * inside such a scalar may therefore be reported later than it is fed.
+ * </p>
+ * <p>
+ * The instance is not thread-safe.
+ * </p>
+ */
+public class FeedParser {
+    public enum Status {
+        /**
+         * The next event is available with <code>getEvent()</code>
+         */
+        EVENT,
+        /**
+         * The next event is not complete yet, feed more input
+         */
+        NEED_MORE_INPUT,
+        /**
+         * The last event (StreamEnd) is already taken
+         */
+        END
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    // the scanner looks at most this number of characters ahead to find out
+    // whether a scalar ends (for instance "--- " at the beginning of a line)
+    private static final int LOOKAHEAD = 4;
+
+    private final StreamReader reader;
+    private final ScannerImpl scanner;
+    private final ParserImpl parser;
+    // the bytes which are not decoded yet (in write mode)
+    private ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private CharsetDecoder decoder = null;
+    private CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    // the number of characters given to the reader
+    private int fed = 0;
+    // the number of characters given to the reader when the last attempt
+    // failed (-1 when it did not fail) and when the failed event began
+    private int failedAt = -1;
+    private int failedFrom;
+    // what the failed attempt waits for (see ScannerImpl.getScanStyle())
+    private char waitStyle;
+    private int waitIndent;
+    // a character which may complete the failed attempt has arrived
+    private boolean resume = false;
+    // the characters up to this one (exclusive) may complete the attempt:
+    // they are a character which may end the scalar or its look-ahead
+    private int resumeBefore = 0;
+    // the last characters and the columns where they start a line (-1 when
+    // they are not the first character of the line other than space)
+    private final char[] recent = new char[LOOKAHEAD];
+    private final int[] recentColumns = new int[LOOKAHEAD];
+    // the column of the next character and whether its line has only spaces
+    // so far
+    private int column = 0;
+    private boolean indentation = true;
+    // the number of the attempts which required more input (for the tests)
+    int failedAttempts = 0;
+    private Event event = null;
+    private boolean finished = false;
+
+    public FeedParser() {
+        this(new LoaderOptions());
+    }
+
+    /**
+     * @param loaderOptions
+     *            the options (the mark mode, the symbol table and the large
+     *            scalar limit) to parse with
+     */
+    public FeedParser(LoaderOptions loaderOptions) {
+        this.reader = new StreamReader();
+        this.reader.setMarkMode(loaderOptions.getMarkMode());
+        this.scanner = new ScannerImpl(reader);
+        this.scanner.setSymbolTable(loaderOptions.getSymbolTable());
+        this.scanner.setLargeScalarLimit(loaderOptions.getLargeScalarLimit());
+        this.parser = new ParserImpl(scanner);
+    }
+
+    /**
+     * Add the next part of the input. The bytes between the position and the
+     * limit are consumed.
+     * 
+     * @param input
+     *            the bytes of the YAML stream
+     */
+    public void feed(ByteBuffer input) {
+        if (reader.isEndOfInput()) {
+            throw new YAMLException("The end of the input is already reached.");
+        }
+        if (bytes.remaining() < input.remaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes.position() + input.remaining(),
+                    bytes.capacity() * 2));
+            bytes.flip();
+            larger.put(bytes);
+            bytes = larger;
+        }
+        bytes.put(input);
+        decode(false);
+    }
+
+    /**
+     * There is no more input. The rest of the events can be taken.
+     */
+    public void endOfInput() {
+        if (!reader.isEndOfInput()) {
+            decode(true);
+            reader.endOfInput();
+        }
+    }
+
+    /**
+     * Parse the next event if the input is sufficient. It never waits for the
+     * input.
+     * 
+     * @return EVENT when the event can be taken with <code>getEvent()</code>
+     */
+    public Status next() {
+        if (event != null) {
+            return Status.EVENT;
+        } else if (finished) {
+            return Status.END;
+        }
+        boolean complete = reader.isEndOfInput();
+        if (complete) {
+            reader.clearCheckpoint();
+        } else if (fed == failedAt) {
+            // the previous attempt failed and nothing has arrived since
+            return Status.NEED_MORE_INPUT;
+        } else if (failedAt >= 0 && !resume && fed - failedFrom < 2 * (failedAt - failedFrom)) {
+            // the same scalar (or comment) goes on, it is scanned again only
+            // when the pending input has doubled
+            return Status.NEED_MORE_INPUT;
+        }
+        ParserImpl.Checkpoint parserState = null;
+        ScannerImpl.Checkpoint scannerState = null;
+        int from = reader.getIndex();
+        if (!complete) {
+            reader.setCheckpoint();
+            scannerState = scanner.checkpoint();
+            parserState = parser.checkpoint();
+        }
+        try {
+            event = parser.getEvent();
+        } catch (NeedMoreInputException e) {
+            reader.rollback();
+            scanner.rollback(scannerState);
+            parser.rollback(parserState);
+            failedAt = fed;
+            failedFrom = from;
+            waitStyle = scanner.getScanStyle();
+            waitIndent = scanner.getScanIndent();
+            resume = false;
+            // the scanner may wait for the look-ahead of a character it has
+            for (int index = Math.max(0, fed - LOOKAHEAD); index < fed; index++) {
+                if (mayEnd(recent[index % LOOKAHEAD], recentColumns[index % LOOKAHEAD])) {
+                    resumeBefore = Math.max(resumeBefore, index + LOOKAHEAD);
+                }
+            }
+            failedAttempts++;
+            return Status.NEED_MORE_INPUT;
+        }
+        reader.clearCheckpoint();
+        failedAt = -1;
+        if (event == null) {
+            finished = true;
+            return Status.END;
+        }
+        return Status.EVENT;
+    }
+
+    /**
+     * Take the event parsed by <code>next()</code>
+     * 
+     * @return the event or <code>null</code> when <code>next()</code> did not
+     *         return EVENT
+     */
+    public Event getEvent() {
+        Event value = event;
+        if (value != null && value.is(Event.ID.StreamEnd)) {
+            finished = true;
+        }
+        event = null;
+        return value;
+    }
+
+    /**
+     * Detect the encoding (by BOM) and give the decoded characters to the
+     * reader.
+     */
+    private void decode(boolean endOfInput) {
+        bytes.flip();
+        try {
+            if (decoder == null && !detectEncoding(endOfInput)) {
+                return;
+            }
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                flush();
+            } while (result.isOverflow());
+            if (endOfInput) {
+                // the decoders for UTF-8 and UTF-16 do not keep any characters
+                decoder.flush(chars);
+                flush();
+            }
+        } catch (CharacterCodingException e) {
+            throw new YAMLException(e);
+        } finally {
+            bytes.compact();
+        }
+    }
+
+    private void flush() {
+        if (chars.position() > 0) {
+            reader.feed(chars.array(), 0, chars.position());
+            track(chars.array(), chars.position());
+            fed += chars.position();
+            chars.clear();
+        }
+    }
+
+    /**
+     * Follow the lines of the fed characters and find out whether they may
+     * complete the attempt which failed.
+     */
+    private void track(char[] data, int length) {
+        for (int i = 0; i < length; i++) {
+            char ch = data[i];
+            int index = fed + i;
+            boolean lineBreak = Constant.FULL_LINEBR.has(ch);
+            int lineStart = indentation && ch != ' ' && !lineBreak ? column : -1;
+            recent[index % LOOKAHEAD] = ch;
+            recentColumns[index % LOOKAHEAD] = lineStart;
+            if (failedAt >= 0) {
+                if (mayEnd(ch, lineStart)) {
+                    resumeBefore = index + LOOKAHEAD;
+                }
+                resume = resume || index < resumeBefore;
+            }
+            if (lineBreak) {
+                column = 0;
+                indentation = true;
+            } else {
+                column++;
+                indentation = indentation && ch == ' ';
+            }
+        }
+    }
+
+    /**
+     * Check whether the character may end the scalar (or the comment) which
+     * the failed attempt waits for.
+     * 
+     * @param lineStart
+     *            the column of the character when it is the first character
+     *            of its line other than space, -1 otherwise
+     */
+    private boolean mayEnd(char ch, int lineStart) {
+        boolean lessIndented = lineStart >= 0 && lineStart < waitIndent;
+        // "---" or "..." at the beginning of the line
+        boolean separator = lineStart == 0 && (ch == '-' || ch == '.');
+        switch (waitStyle) {
+        case '#':
+            return Constant.FULL_LINEBR.has(ch);
+        case '|':
+        case '>':
+            return lessIndented;
+        case '\'':
+        case '"':
+            return ch == waitStyle || separator;
+        case ' ':
+            return ch == ':' || ch == '#' || lessIndented || separator;
+        case '[':
+            return ":#,?[]{}".indexOf(ch) != -1 || separator;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * The same BOMs as for UnicodeReader. No BOM means UTF-8.
+     * 
+     * @return <code>false</code> if more bytes are required
+     */
+    private boolean detectEncoding(boolean endOfInput) {
+        int n = bytes.remaining();
+        int p = bytes.position();
+        Charset encoding;
+        if (n >= 3 && bytes.get(p) == (byte) 0xEF && bytes.get(p + 1) == (byte) 0xBB
+                && bytes.get(p + 2) == (byte) 0xBF) {
+            encoding = Charset.forName("UTF-8");
+            bytes.position(p + 3);
+        } else if (n >= 2 && bytes.get(p) == (byte) 0xFE && bytes.get(p + 1) == (byte) 0xFF) {
+            encoding = Charset.forName("UTF-16BE");
+            bytes.position(p + 2);
+        } else if (n >= 2 && bytes.get(p) == (byte) 0xFF && bytes.get(p + 1) == (byte) 0xFE) {
+            encoding = Charset.forName("UTF-16LE");
+            bytes.position(p + 2);
+        } else if (n >= 3 || endOfInput || (n >= 1 && bytes.get(p) != (byte) 0xEF
+                && bytes.get(p) != (byte) 0xFE && bytes.get(p) != (byte) 0xFF)
+                || (n == 2 && bytes.get(p) != (byte) 0xEF)) {
+            encoding = Charset.forName("UTF-8");
+        } else {
+            // a BOM may be not complete yet
+            return false;
+        }
+        decoder = encoding.newDecoder().onUnmappableCharacter(CodingErrorAction.REPORT)
+                .onMalformedInput(CodingErrorAction.REPORT);
+        return true;
+    }
+}
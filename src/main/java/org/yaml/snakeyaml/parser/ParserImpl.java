@@ -23,17 +23,16 @@ import org.yaml.snakeyaml.DumperOptions.Version;
 import org.yaml.snakeyaml.error.Mark;
 import org.yaml.snakeyaml.error.YAMLException;
 import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
 import org.yaml.snakeyaml.events.DocumentEndEvent;
 import org.yaml.snakeyaml.events.DocumentStartEvent;
 import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.EventFactory;
 import org.yaml.snakeyaml.events.ImplicitTuple;
-import org.yaml.snakeyaml.events.MappingEndEvent;
-import org.yaml.snakeyaml.events.MappingStartEvent;
 import org.yaml.snakeyaml.events.ScalarEvent;
-import org.yaml.snakeyaml.events.SequenceEndEvent;
-import org.yaml.snakeyaml.events.SequenceStartEvent;
 import org.yaml.snakeyaml.events.StreamEndEvent;
 import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.events.YamlEventHandler;
 import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.scanner.Scanner;
@@ -119,13 +118,48 @@ public class ParserImpl implements Parser {
         DEFAULT_TAGS.put("!", "!");
         DEFAULT_TAGS.put("!!", Tag.PREFIX);
     }
+    private static final ImplicitTuple IMPLICIT_PLAIN = new ImplicitTuple(true, false);
+    private static final ImplicitTuple IMPLICIT_NON_PLAIN = new ImplicitTuple(false, true);
+    private static final ImplicitTuple NOT_IMPLICIT = new ImplicitTuple(false, false);
 
     protected final Scanner scanner;
     private Event currentEvent;
-    private final ArrayStack<Production> states;
-    private final ArrayStack<Mark> marks;
+    private ArrayStack<Production> states;
+    private ArrayStack<Mark> marks;
     private Production state;
     private VersionTagsTuple directives;
+    // the productions keep no state, one instance of each is enough
+    private final Production parseImplicitDocumentStart = new ParseImplicitDocumentStart();
+    private final Production parseDocumentStart = new ParseDocumentStart();
+    private final Production parseDocumentEnd = new ParseDocumentEnd();
+    private final Production parseDocumentContent = new ParseDocumentContent();
+    private final Production parseBlockNode = new ParseBlockNode();
+    private final Production parseBlockSequenceFirstEntry = new ParseBlockSequenceFirstEntry();
+    private final Production parseBlockSequenceEntry = new ParseBlockSequenceEntry();
+    private final Production parseIndentlessSequenceEntry = new ParseIndentlessSequenceEntry();
+    private final Production parseBlockMappingFirstKey = new ParseBlockMappingFirstKey();
+    private final Production parseBlockMappingKey = new ParseBlockMappingKey();
+    private final Production parseBlockMappingValue = new ParseBlockMappingValue();
+    private final Production parseFlowSequenceFirstEntry = new ParseFlowSequenceFirstEntry();
+    private final Production parseFlowSequenceEntry = new ParseFlowSequenceEntry(false);
+    private final Production parseFlowSequenceEntryFirst = new ParseFlowSequenceEntry(true);
+    private final Production parseFlowSequenceEntryMappingKey =
+            new ParseFlowSequenceEntryMappingKey();
+    private final Production parseFlowSequenceEntryMappingValue =
+            new ParseFlowSequenceEntryMappingValue();
+    private final Production parseFlowSequenceEntryMappingEnd =
+            new ParseFlowSequenceEntryMappingEnd();
+    private final Production parseFlowMappingFirstKey = new ParseFlowMappingFirstKey();
+    private final Production parseFlowMappingKey = new ParseFlowMappingKey(false);
+    private final Production parseFlowMappingKeyFirst = new ParseFlowMappingKey(true);
+    private final Production parseFlowMappingValue = new ParseFlowMappingValue();
+    private final Production parseFlowMappingEmptyValue = new ParseFlowMappingEmptyValue();
+    private EventFactory events;
+    private EventFactory skipEvents;
+    // the last resolved tag, the same tags are usually repeated
+    private String lastPrefix;
+    private String lastSuffix;
+    private String lastTag;
 
     public ParserImpl(StreamReader reader) {
         this(new ScannerImpl(reader));
@@ -138,6 +172,30 @@ public class ParserImpl implements Parser {
         states = new ArrayStack<Production>(100);
         marks = new ArrayStack<Mark>(10);
         state = new ParseStreamStart();
+        events = new EventFactory(false);
+    }
+
+    /**
+     * Refill one instance for every kind of node event instead of creating a
+     * new event every time. A reused event is valid only until the next call
+     * to checkEvent(), peekEvent() or getEvent(): the consumer must not keep
+     * it (the Composer keeps the events and FeedParser returns to the events it
+     * has already seen, so they do not work with reused events). The value of
+     * a reused ScalarEvent should be read with getValueSequence() to avoid
+     * creating a String. Together with <code>MarkMode.NONE</code> of the
+     * reader most of the garbage per event is gone.
+     * 
+     * @param reuseEvents
+     *            <code>true</code> to reuse the events
+     */
+    public void setReuseEvents(boolean reuseEvents) {
+        if (reuseEvents != events.isReuse()) {
+            this.events = new EventFactory(reuseEvents);
+        }
+    }
+
+    public boolean isReuseEvents() {
+        return events.isReuse();
     }
 
     /**
@@ -170,6 +228,148 @@ public class ParserImpl implements Parser {
         return value;
     }
 
+    /**
+     * Skip the node which starts with the next event: a scalar, an alias or a
+     * whole collection. The next event is the first one after the node. The
+     * content of a skipped collection is scanned by ScannerImpl only for its
+     * structure, without the values of the scalars and without the Marks (a
+     * problem inside the collection is reported without its position).
+     */
+    public void skipCurrentNode() {
+        Event event = peekEvent();
+        if (event != null && (event.is(Event.ID.Scalar) || event.is(Event.ID.Alias))) {
+            getEvent();
+            return;
+        } else if (event == null
+                || !(event.is(Event.ID.SequenceStart) || event.is(Event.ID.MappingStart))) {
+            throw new ParserException(null, null, "expected a node to skip, but found " + event,
+                    event != null ? event.getStartMark() : null);
+        }
+        getEvent();
+        // a collection which has its own tokens (a single pair mapping in a
+        // flow sequence has none) is skipped by the scanner
+        boolean flow = state instanceof ParseFlowSequenceFirstEntry
+                || state instanceof ParseFlowMappingFirstKey;
+        boolean indentless = state instanceof ParseIndentlessSequenceEntry;
+        boolean skipping = scanner instanceof ScannerImpl
+                && (flow || indentless || state instanceof ParseBlockSequenceFirstEntry
+                        || state instanceof ParseBlockMappingFirstKey);
+        if (skipping) {
+            ((ScannerImpl) scanner).startSkipping(flow, indentless);
+        }
+        // the events inside the node are dropped
+        EventFactory factory = events;
+        if (!factory.isReuse()) {
+            if (skipEvents == null) {
+                skipEvents = new EventFactory(true);
+            }
+            events = skipEvents;
+        }
+        try {
+            int depth = 1;
+            while (depth > 0) {
+                event = getEvent();
+                if (event.is(Event.ID.SequenceStart) || event.is(Event.ID.MappingStart)) {
+                    depth++;
+                } else if (event.is(Event.ID.SequenceEnd) || event.is(Event.ID.MappingEnd)) {
+                    depth--;
+                }
+            }
+        } finally {
+            events = factory;
+            if (skipping) {
+                ((ScannerImpl) scanner).stopSkipping();
+            }
+        }
+    }
+
+    /**
+     * Pass all the remaining events to the handler. The node events are
+     * reused (see setReuseEvents()) while the handler is called, the handler
+     * gets only their properties.
+     * 
+     * @param handler
+     *            receives the events
+     */
+    public void parse(YamlEventHandler handler) {
+        EventFactory factory = events;
+        if (!factory.isReuse()) {
+            events = new EventFactory(true);
+        }
+        try {
+            while (peekEvent() != null) {
+                Event event = getEvent();
+                if (event instanceof ScalarEvent) {
+                    ScalarEvent scalar = (ScalarEvent) event;
+                    handler.onScalar(scalar.getAnchor(), scalar.getTag(), scalar.getImplicit(),
+                            scalar.getValueSequence(), scalar.getStyle());
+                } else if (event instanceof CollectionStartEvent) {
+                    CollectionStartEvent start = (CollectionStartEvent) event;
+                    if (event.is(Event.ID.MappingStart)) {
+                        handler.onMappingStart(start.getAnchor(), start.getTag(),
+                                start.getImplicit(), start.getFlowStyle());
+                    } else {
+                        handler.onSequenceStart(start.getAnchor(), start.getTag(),
+                                start.getImplicit(), start.getFlowStyle());
+                    }
+                } else if (event.is(Event.ID.MappingEnd)) {
+                    handler.onMappingEnd();
+                } else if (event.is(Event.ID.SequenceEnd)) {
+                    handler.onSequenceEnd();
+                } else if (event instanceof AliasEvent) {
+                    handler.onAlias(((AliasEvent) event).getAnchor());
+                } else if (event instanceof DocumentStartEvent) {
+                    DocumentStartEvent start = (DocumentStartEvent) event;
+                    handler.onDocumentStart(start.getExplicit(), start.getVersion(),
+                            start.getTags());
+                } else if (event instanceof DocumentEndEvent) {
+                    handler.onDocumentEnd(((DocumentEndEvent) event).getExplicit());
+                } else if (event instanceof StreamStartEvent) {
+                    handler.onStreamStart();
+                } else {
+                    handler.onStreamEnd();
+                }
+            }
+        } finally {
+            events = factory;
+        }
+    }
+
+    /**
+     * The state of the parser to return to (see FeedParser). The productions
+     * and the directives are not changed, only the stacks are copied.
+     */
+    static final class Checkpoint {
+        private final Event currentEvent;
+        private final ArrayStack<Production> states;
+        private final ArrayStack<Mark> marks;
+        private final Production state;
+        private final VersionTagsTuple directives;
+
+        private Checkpoint(ParserImpl parser) {
+            this.currentEvent = parser.currentEvent;
+            this.states = parser.states.copy();
+            this.marks = parser.marks.copy();
+            this.state = parser.state;
+            this.directives = parser.directives;
+        }
+    }
+
+    Checkpoint checkpoint() {
+        return new Checkpoint(this);
+    }
+
+    /**
+     * Return to the given state. The checkpoint may be used only once.
+     */
+    void rollback(Checkpoint checkpoint) {
+        this.currentEvent = checkpoint.currentEvent;
+        this.states = checkpoint.states;
+        this.marks = checkpoint.marks;
+        this.state = checkpoint.state;
+        this.directives = checkpoint.directives;
+    }
+
     /**
      * <pre>
      * stream    ::= STREAM-START implicit_document? explicit_document* STREAM-END
@@ -183,7 +383,7 @@ public class ParserImpl implements Parser {
             StreamStartToken token = (StreamStartToken) scanner.getToken();
             Event event = new StreamStartEvent(token.getStartMark(), token.getEndMark());
             // Prepare the next state.
-            state = new ParseImplicitDocumentStart();
+            state = parseImplicitDocumentStart;
             return event;
         }
     }
@@ -198,12 +398,11 @@ public class ParserImpl implements Parser {
                 Mark endMark = startMark;
                 Event event = new DocumentStartEvent(startMark, endMark, false, null, null);
                 // Prepare the next state.
-                states.push(new ParseDocumentEnd());
-                state = new ParseBlockNode();
+                states.push(parseDocumentEnd);
+                state = parseBlockNode;
                 return event;
             } else {
-                Production p = new ParseDocumentStart();
-                return p.produce();
+                return parseDocumentStart.produce();
             }
         }
     }
@@ -228,8 +427,8 @@ public class ParserImpl implements Parser {
                 Mark endMark = token.getEndMark();
                 event = new DocumentStartEvent(startMark, endMark, true, tuple.getVersion(),
                         tuple.getTags());
-                states.push(new ParseDocumentEnd());
-                state = new ParseDocumentContent();
+                states.push(parseDocumentEnd);
+                state = parseDocumentContent;
             } else {
                 // Parse the end of the stream.
                 StreamEndToken token = (StreamEndToken) scanner.getToken();
@@ -260,7 +459,7 @@ public class ParserImpl implements Parser {
             }
             Event event = new DocumentEndEvent(startMark, endMark, explicit);
             // Prepare the next state.
-            state = new ParseDocumentStart();
+            state = parseDocumentStart;
             return event;
         }
     }
@@ -274,8 +473,7 @@ public class ParserImpl implements Parser {
                 state = states.pop();
                 return event;
             } else {
-                Production p = new ParseBlockNode();
-                return p.produce();
+                return parseBlockNode.produce();
             }
         }
     }
@@ -359,6 +557,15 @@ public class ParserImpl implements Parser {
         }
     }
 
+    private String resolveTag(String prefix, String suffix) {
+        if (prefix != lastPrefix || !suffix.equals(lastSuffix)) {
+            lastTag = prefix + suffix;
+            lastPrefix = prefix;
+            lastSuffix = suffix;
+        }
+        return lastTag;
+    }
+
     private Event parseFlowNode() {
         return parseNode(false, false);
     }
@@ -374,7 +581,7 @@ public class ParserImpl implements Parser {
         Mark tagMark = null;
         if (scanner.checkToken(Token.ID.Alias)) {
             AliasToken token = (AliasToken) scanner.getToken();
-            event = new AliasEvent(token.getValue(), token.getStartMark(), token.getEndMark());
+            event = events.alias(token.getValue(), token.getStartMark(), token.getEndMark());
             state = states.pop();
         } else {
             String anchor = null;
@@ -411,7 +618,7 @@ public class ParserImpl implements Parser {
                         throw new ParserException("while parsing a node", startMark,
                                 "found undefined tag handle " + handle, tagMark);
                     }
-                    tag = directives.getTags().get(handle) + suffix;
+                    tag = resolveTag(directives.getTags().get(handle), suffix);
                 } else {
                     tag = suffix;
                 }
@@ -424,49 +631,49 @@ public class ParserImpl implements Parser {
             boolean implicit = tag == null || tag.equals("!");
             if (indentlessSequence && scanner.checkToken(Token.ID.BlockEntry)) {
                 endMark = scanner.peekToken().getEndMark();
-                event = new SequenceStartEvent(anchor, tag, implicit, startMark, endMark,
+                event = events.sequenceStart(anchor, tag, implicit, startMark, endMark,
                         Boolean.FALSE);
-                state = new ParseIndentlessSequenceEntry();
+                state = parseIndentlessSequenceEntry;
             } else {
                 if (scanner.checkToken(Token.ID.Scalar)) {
                     ScalarToken token = (ScalarToken) scanner.getToken();
                     endMark = token.getEndMark();
                     ImplicitTuple implicitValues;
                     if ((token.getPlain() && tag == null) || "!".equals(tag)) {
-                        implicitValues = new ImplicitTuple(true, false);
+                        implicitValues = IMPLICIT_PLAIN;
                     } else if (tag == null) {
-                        implicitValues = new ImplicitTuple(false, true);
+                        implicitValues = IMPLICIT_NON_PLAIN;
                     } else {
-                        implicitValues = new ImplicitTuple(false, false);
+                        implicitValues = NOT_IMPLICIT;
                     }
-                    event = new ScalarEvent(anchor, tag, implicitValues, token.getValue(),
+                    event = events.scalar(anchor, tag, implicitValues, token.getValueSequence(),
                             startMark, endMark, token.getStyle());
                     state = states.pop();
                 } else if (scanner.checkToken(Token.ID.FlowSequenceStart)) {
                     endMark = scanner.peekToken().getEndMark();
-                    event = new SequenceStartEvent(anchor, tag, implicit, startMark, endMark,
+                    event = events.sequenceStart(anchor, tag, implicit, startMark, endMark,
                             Boolean.TRUE);
-                    state = new ParseFlowSequenceFirstEntry();
+                    state = parseFlowSequenceFirstEntry;
                 } else if (scanner.checkToken(Token.ID.FlowMappingStart)) {
                     endMark = scanner.peekToken().getEndMark();
-                    event = new MappingStartEvent(anchor, tag, implicit, startMark, endMark,
+                    event = events.mappingStart(anchor, tag, implicit, startMark, endMark,
                             Boolean.TRUE);
-                    state = new ParseFlowMappingFirstKey();
+                    state = parseFlowMappingFirstKey;
                 } else if (block && scanner.checkToken(Token.ID.BlockSequenceStart)) {
                     endMark = scanner.peekToken().getStartMark();
-                    event = new SequenceStartEvent(anchor, tag, implicit, startMark, endMark,
+                    event = events.sequenceStart(anchor, tag, implicit, startMark, endMark,
                             Boolean.FALSE);
-                    state = new ParseBlockSequenceFirstEntry();
+                    state = parseBlockSequenceFirstEntry;
                 } else if (block && scanner.checkToken(Token.ID.BlockMappingStart)) {
                     endMark = scanner.peekToken().getStartMark();
-                    event = new MappingStartEvent(anchor, tag, implicit, startMark, endMark,
+                    event = events.mappingStart(anchor, tag, implicit, startMark, endMark,
                             Boolean.FALSE);
-                    state = new ParseBlockMappingFirstKey();
+                    state = parseBlockMappingFirstKey;
                 } else if (anchor != null || tag != null) {
                     // Empty scalars are allowed even if a tag or an anchor is
                     // specified.
-                    event = new ScalarEvent(anchor, tag, new ImplicitTuple(implicit, false), "",
-                            startMark, endMark, (char) 0);
+                    event = events.scalar(anchor, tag, implicit ? IMPLICIT_PLAIN : NOT_IMPLICIT,
+                            "", startMark, endMark, (char) 0);
                     state = states.pop();
                 } else {
                     String node;
@@ -492,7 +699,7 @@ public class ParserImpl implements Parser {
         public Event produce() {
             Token token = scanner.getToken();
             marks.push(token.getStartMark());
-            return new ParseBlockSequenceEntry().produce();
+            return parseBlockSequenceEntry.produce();
         }
     }
 
@@ -501,10 +708,10 @@ public class ParserImpl implements Parser {
             if (scanner.checkToken(Token.ID.BlockEntry)) {
                 BlockEntryToken token = (BlockEntryToken) scanner.getToken();
                 if (!scanner.checkToken(Token.ID.BlockEntry, Token.ID.BlockEnd)) {
-                    states.push(new ParseBlockSequenceEntry());
-                    return new ParseBlockNode().produce();
+                    states.push(parseBlockSequenceEntry);
+                    return parseBlockNode.produce();
                 } else {
-                    state = new ParseBlockSequenceEntry();
+                    state = parseBlockSequenceEntry;
                     return processEmptyScalar(token.getEndMark());
                 }
             }
@@ -515,7 +722,7 @@ public class ParserImpl implements Parser {
                         token.getStartMark());
             }
             Token token = scanner.getToken();
-            Event event = new SequenceEndEvent(token.getStartMark(), token.getEndMark());
+            Event event = events.sequenceEnd(token.getStartMark(), token.getEndMark());
             state = states.pop();
             marks.pop();
             return event;
@@ -530,15 +737,15 @@ public class ParserImpl implements Parser {
                 Token token = scanner.getToken();
                 if (!scanner.checkToken(Token.ID.BlockEntry, Token.ID.Key, Token.ID.Value,
                         Token.ID.BlockEnd)) {
-                    states.push(new ParseIndentlessSequenceEntry());
-                    return new ParseBlockNode().produce();
+                    states.push(parseIndentlessSequenceEntry);
+                    return parseBlockNode.produce();
                 } else {
-                    state = new ParseIndentlessSequenceEntry();
+                    state = parseIndentlessSequenceEntry;
                     return processEmptyScalar(token.getEndMark());
                 }
             }
             Token token = scanner.peekToken();
-            Event event = new SequenceEndEvent(token.getStartMark(), token.getEndMark());
+            Event event = events.sequenceEnd(token.getStartMark(), token.getEndMark());
             state = states.pop();
             return event;
         }
@@ -548,7 +755,7 @@ public class ParserImpl implements Parser {
         public Event produce() {
             Token token = scanner.getToken();
             marks.push(token.getStartMark());
-            return new ParseBlockMappingKey().produce();
+            return parseBlockMappingKey.produce();
         }
     }
 
@@ -557,10 +764,10 @@ public class ParserImpl implements Parser {
             if (scanner.checkToken(Token.ID.Key)) {
                 Token token = scanner.getToken();
                 if (!scanner.checkToken(Token.ID.Key, Token.ID.Value, Token.ID.BlockEnd)) {
-                    states.push(new ParseBlockMappingValue());
+                    states.push(parseBlockMappingValue);
                     return parseBlockNodeOrIndentlessSequence();
                 } else {
-                    state = new ParseBlockMappingValue();
+                    state = parseBlockMappingValue;
                     return processEmptyScalar(token.getEndMark());
                 }
             }
@@ -571,7 +778,7 @@ public class ParserImpl implements Parser {
                         token.getStartMark());
             }
             Token token = scanner.getToken();
-            Event event = new MappingEndEvent(token.getStartMark(), token.getEndMark());
+            Event event = events.mappingEnd(token.getStartMark(), token.getEndMark());
             state = states.pop();
             marks.pop();
             return event;
@@ -583,14 +790,14 @@ public class ParserImpl implements Parser {
             if (scanner.checkToken(Token.ID.Value)) {
                 Token token = scanner.getToken();
                 if (!scanner.checkToken(Token.ID.Key, Token.ID.Value, Token.ID.BlockEnd)) {
-                    states.push(new ParseBlockMappingKey());
+                    states.push(parseBlockMappingKey);
                     return parseBlockNodeOrIndentlessSequence();
                 } else {
-                    state = new ParseBlockMappingKey();
+                    state = parseBlockMappingKey;
                     return processEmptyScalar(token.getEndMark());
                 }
             }
-            state = new ParseBlockMappingKey();
+            state = parseBlockMappingKey;
             Token token = scanner.peekToken();
             return processEmptyScalar(token.getStartMark());
         }
@@ -613,12 +820,12 @@ public class ParserImpl implements Parser {
         public Event produce() {
             Token token = scanner.getToken();
             marks.push(token.getStartMark());
-            return new ParseFlowSequenceEntry(true).produce();
+            return parseFlowSequenceEntryFirst.produce();
         }
     }
 
     private class ParseFlowSequenceEntry implements Production {
-        private boolean first = false;
+        private final boolean first;
 
         public ParseFlowSequenceEntry(boolean first) {
             this.first = first;
@@ -638,17 +845,17 @@ public class ParserImpl implements Parser {
                 }
                 if (scanner.checkToken(Token.ID.Key)) {
                     Token token = scanner.peekToken();
-                    Event event = new MappingStartEvent(null, null, true, token.getStartMark(),
+                    Event event = events.mappingStart(null, null, true, token.getStartMark(),
                             token.getEndMark(), Boolean.TRUE);
-                    state = new ParseFlowSequenceEntryMappingKey();
+                    state = parseFlowSequenceEntryMappingKey;
                     return event;
                 } else if (!scanner.checkToken(Token.ID.FlowSequenceEnd)) {
-                    states.push(new ParseFlowSequenceEntry(false));
+                    states.push(parseFlowSequenceEntry);
                     return parseFlowNode();
                 }
             }
             Token token = scanner.getToken();
-            Event event = new SequenceEndEvent(token.getStartMark(), token.getEndMark());
+            Event event = events.sequenceEnd(token.getStartMark(), token.getEndMark());
             state = states.pop();
             marks.pop();
             return event;
@@ -659,10 +866,10 @@ public class ParserImpl implements Parser {
         public Event produce() {
             Token token = scanner.getToken();
             if (!scanner.checkToken(Token.ID.Value, Token.ID.FlowEntry, Token.ID.FlowSequenceEnd)) {
-                states.push(new ParseFlowSequenceEntryMappingValue());
+                states.push(parseFlowSequenceEntryMappingValue);
                 return parseFlowNode();
             } else {
-                state = new ParseFlowSequenceEntryMappingValue();
+                state = parseFlowSequenceEntryMappingValue;
                 return processEmptyScalar(token.getEndMark());
             }
         }
@@ -673,14 +880,14 @@ public class ParserImpl implements Parser {
             if (scanner.checkToken(Token.ID.Value)) {
                 Token token = scanner.getToken();
                 if (!scanner.checkToken(Token.ID.FlowEntry, Token.ID.FlowSequenceEnd)) {
-                    states.push(new ParseFlowSequenceEntryMappingEnd());
+                    states.push(parseFlowSequenceEntryMappingEnd);
                     return parseFlowNode();
                 } else {
-                    state = new ParseFlowSequenceEntryMappingEnd();
+                    state = parseFlowSequenceEntryMappingEnd;
                     return processEmptyScalar(token.getEndMark());
                 }
             } else {
-                state = new ParseFlowSequenceEntryMappingEnd();
+                state = parseFlowSequenceEntryMappingEnd;
                 Token token = scanner.peekToken();
                 return processEmptyScalar(token.getStartMark());
             }
@@ -689,9 +896,9 @@ public class ParserImpl implements Parser {
 
     private class ParseFlowSequenceEntryMappingEnd implements Production {
         public Event produce() {
-            state = new ParseFlowSequenceEntry(false);
+            state = parseFlowSequenceEntry;
             Token token = scanner.peekToken();
-            return new MappingEndEvent(token.getStartMark(), token.getEndMark());
+            return events.mappingEnd(token.getStartMark(), token.getEndMark());
         }
     }
 
@@ -708,12 +915,12 @@ public class ParserImpl implements Parser {
         public Event produce() {
             Token token = scanner.getToken();
             marks.push(token.getStartMark());
-            return new ParseFlowMappingKey(true).produce();
+            return parseFlowMappingKeyFirst.produce();
         }
     }
 
     private class ParseFlowMappingKey implements Production {
-        private boolean first = false;
+        private final boolean first;
 
         public ParseFlowMappingKey(boolean first) {
             this.first = first;
@@ -735,19 +942,19 @@ public class ParserImpl implements Parser {
                     Token token = scanner.getToken();
                     if (!scanner.checkToken(Token.ID.Value, Token.ID.FlowEntry,
                             Token.ID.FlowMappingEnd)) {
-                        states.push(new ParseFlowMappingValue());
+                        states.push(parseFlowMappingValue);
                         return parseFlowNode();
                     } else {
-                        state = new ParseFlowMappingValue();
+                        state = parseFlowMappingValue;
                         return processEmptyScalar(token.getEndMark());
                     }
                 } else if (!scanner.checkToken(Token.ID.FlowMappingEnd)) {
-                    states.push(new ParseFlowMappingEmptyValue());
+                    states.push(parseFlowMappingEmptyValue);
                     return parseFlowNode();
                 }
             }
             Token token = scanner.getToken();
-            Event event = new MappingEndEvent(token.getStartMark(), token.getEndMark());
+            Event event = events.mappingEnd(token.getStartMark(), token.getEndMark());
             state = states.pop();
             marks.pop();
             return event;
@@ -759,14 +966,14 @@ public class ParserImpl implements Parser {
             if (scanner.checkToken(Token.ID.Value)) {
                 Token token = scanner.getToken();
                 if (!scanner.checkToken(Token.ID.FlowEntry, Token.ID.FlowMappingEnd)) {
-                    states.push(new ParseFlowMappingKey(false));
+                    states.push(parseFlowMappingKey);
                     return parseFlowNode();
                 } else {
-                    state = new ParseFlowMappingKey(false);
+                    state = parseFlowMappingKey;
                     return processEmptyScalar(token.getEndMark());
                 }
             } else {
-                state = new ParseFlowMappingKey(false);
+                state = parseFlowMappingKey;
                 Token token = scanner.peekToken();
                 return processEmptyScalar(token.getStartMark());
             }
@@ -775,7 +982,7 @@ public class ParserImpl implements Parser {
 
     private class ParseFlowMappingEmptyValue implements Production {
         public Event produce() {
-            state = new ParseFlowMappingKey(false);
+            state = parseFlowMappingKey;
             return processEmptyScalar(scanner.peekToken().getStartMark());
         }
     }
@@ -789,6 +996,6 @@ public class ParserImpl implements Parser {
      * </pre>
      */
     private Event processEmptyScalar(Mark mark) {
-        return new ScalarEvent(null, null, new ImplicitTuple(true, false), "", mark, mark, (char) 0);
+        return events.scalar(null, null, IMPLICIT_PLAIN, "", mark, mark, (char) 0);
     }
 }
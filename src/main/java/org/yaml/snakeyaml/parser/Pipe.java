@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Pass the items from one thread to another in batches (see PipelinedParser).
+ * There is one producer and one consumer, the number of the batches in the
+ * pipe is limited.
+ */
+final class Pipe<T> {
+    private static final class Batch {
+        private final Object[] items;
+        private final int size;
+        // the producer has finished
+        private final boolean last;
+        private final Throwable error;
+
+        public Batch(Object[] items, int size, boolean last, Throwable error) {
+            this.items = items;
+            this.size = size;
+            this.last = last;
+            this.error = error;
+        }
+    }
+
+    private final BlockingQueue<Batch> queue;
+    private final int batchSize;
+    // the producer side
+    private Object[] items;
+    private int size;
+    // the consumer side
+    private Batch batch;
+    private int pointer;
+
+    public Pipe(int batchSize, int capacity) {
+        this.queue = new ArrayBlockingQueue<Batch>(capacity);
+        this.batchSize = batchSize;
+        this.items = new Object[batchSize];
+    }
+
+    /**
+     * Add an item (the producer).
+     * 
+     * @throws InterruptedException
+     *             when the consumer has stopped
+     */
+    public void add(T item) throws InterruptedException {
+        items[size++] = item;
+        if (size == batchSize) {
+            queue.put(new Batch(items, size, false, null));
+            items = new Object[batchSize];
+            size = 0;
+        }
+    }
+
+    /**
+     * There are no more items (the producer).
+     * 
+     * @param error
+     *            the failure of the producer to give to the consumer after the
+     *            items or <code>null</code>
+     * @throws InterruptedException
+     *             when the consumer has stopped
+     */
+    public void close(Throwable error) throws InterruptedException {
+        queue.put(new Batch(items, size, true, error));
+        items = null;
+    }
+
+    /**
+     * @return the next item without taking it (the consumer) or
+     *         <code>null</code> when there are no more items
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        while (batch == null || pointer == batch.size) {
+            if (batch != null && batch.last) {
+                if (batch.error instanceof RuntimeException) {
+                    throw (RuntimeException) batch.error;
+                } else if (batch.error instanceof Error) {
+                    throw (Error) batch.error;
+                } else if (batch.error != null) {
+                    throw new YAMLException(batch.error);
+                }
+                return null;
+            }
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new YAMLException(e);
+            }
+            pointer = 0;
+        }
+        return (T) batch.items[pointer];
+    }
+
+    /**
+     * @return the next item (the consumer) or <code>null</code> when there are
+     *         no more items
+     */
+    public T take() {
+        T item = peek();
+        if (item != null) {
+            // the consumed items are not kept
+            batch.items[pointer++] = null;
+        }
+        return item;
+    }
+}
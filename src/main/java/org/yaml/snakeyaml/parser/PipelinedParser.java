@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.scanner.Scanner;
+import org.yaml.snakeyaml.tokens.Token;
+
+/**
+ * Parser which runs the scanner and the ParserImpl in two threads of their
+ * own, the events are consumed in the calling thread (by the Composer). The
+ * tokens and the events are passed between the threads in batches through
+ * bounded queues, so a large document is scanned and parsed while the
+ * previous events are composed and constructed. For a valid document the
+ * events are the same as with ParserImpl. An error is reported when its
+ * position is reached, but when the document has both a scanner and a parser
+ * error the first one found may differ. The threads are daemons, they end at
+ * the end of the stream, after an error or after close().
+ */
+public class PipelinedParser implements Parser {
+    private static final int BATCH_SIZE = 512;
+    private static final int CAPACITY = 16;
+
+    private final Pipe<Event> events;
+    private final Thread scannerThread;
+    private final Thread parserThread;
+
+    public PipelinedParser(final Scanner scanner) {
+        final Pipe<Token> tokens = new Pipe<Token>(BATCH_SIZE, CAPACITY);
+        this.events = new Pipe<Event>(BATCH_SIZE, CAPACITY);
+        this.scannerThread = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Throwable error = null;
+                    try {
+                        Token token;
+                        do {
+                            // ScannerImpl fetches the tokens when they are checked
+                            scanner.checkToken();
+                            token = scanner.getToken();
+                            tokens.add(token);
+                        } while (token.getTokenId() != Token.ID.StreamEnd);
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    tokens.close(error);
+                } catch (InterruptedException e) {
+                    // the pipeline is closed
+                }
+            }
+        }, "snakeyaml-scanner");
+        this.parserThread = new Thread(new Runnable() {
+            public void run() {
+                ParserImpl parser = new ParserImpl(new PipeScanner(tokens));
+                try {
+                    Throwable error = null;
+                    try {
+                        Event event;
+                        do {
+                            event = parser.getEvent();
+                            events.add(event);
+                        } while (!event.is(Event.ID.StreamEnd));
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    events.close(error);
+                } catch (InterruptedException e) {
+                    // the pipeline is closed
+                } finally {
+                    scannerThread.interrupt();
+                }
+            }
+        }, "snakeyaml-parser");
+        scannerThread.setDaemon(true);
+        parserThread.setDaemon(true);
+        scannerThread.start();
+        parserThread.start();
+    }
+
+    /**
+     * The tokens of the scanner thread for the ParserImpl.
+     */
+    private static class PipeScanner implements Scanner {
+        private final Pipe<Token> tokens;
+
+        public PipeScanner(Pipe<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        public boolean checkToken(Token.ID... choices) {
+            Token token = tokens.peek();
+            if (token == null) {
+                return false;
+            } else if (choices.length == 0) {
+                return true;
+            }
+            Token.ID first = token.getTokenId();
+            for (int i = 0; i < choices.length; i++) {
+                if (first == choices[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Token peekToken() {
+            return tokens.peek();
+        }
+
+        public Token getToken() {
+            return tokens.take();
+        }
+    }
+
+    public boolean checkEvent(Event.ID choice) {
+        Event event = events.peek();
+        return event != null && event.is(choice);
+    }
+
+    public Event peekEvent() {
+        return events.peek();
+    }
+
+    public Event getEvent() {
+        return events.take();
+    }
+
+    /**
+     * Stop the threads when the events are not needed any more.
+     */
+    public void close() {
+        parserThread.interrupt();
+        scannerThread.interrupt();
+    }
+}
@@ -0,0 +1,585 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.math.BigInteger;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.Tag;
+
+/**
+ * Move through the events of a YAML stream and read the scalars as typed
+ * values, without the Composer and the Constructor. The cursor is on one event
+ * at a time, the stream start and end are not shown. The numbers and the
+ * booleans are decoded from the characters of the scalar: a plain scalar
+ * without a tag is read with the rules of the standard Resolver (the custom
+ * implicit resolvers are not known), a scalar with an explicit tag must have
+ * the tag of the requested type. In both cases the value must match the
+ * pattern of the Resolver for the type. The events of the parser are reused, the
+ * cursor is the only way to read them.
+ */
+public class YamlCursor {
+    public enum Kind {
+        DOCUMENT_START, DOCUMENT_END, MAPPING_START, MAPPING_END, SEQUENCE_START, SEQUENCE_END,
+        SCALAR, ALIAS
+    }
+
+    private static final String[] TRUE_VALUES = { "yes", "Yes", "YES", "true", "True", "TRUE",
+            "on", "On", "ON" };
+    private static final String[] FALSE_VALUES = { "no", "No", "NO", "false", "False", "FALSE",
+            "off", "Off", "OFF" };
+    private static final String[] INF_VALUES = { "inf", "Inf", "INF" };
+    private static final String[] NAN_VALUES = { "nan", "NaN", "NAN" };
+    // the powers of ten which are exact doubles
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7,
+            1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21,
+            1e22 };
+
+    // the results of decodeInt()
+    private static final int NOT_INT = 0;
+    private static final int INT = 1;
+    private static final int TOO_LARGE = 2;
+
+    private final ParserImpl parser;
+    private Kind kind;
+    // the event of the cursor, null after skipChildren()
+    private Event event;
+    // the event of the cursor is still the next event of the parser
+    private boolean pending;
+    private long longValue;
+    private double doubleValue;
+
+    public YamlCursor(ParserImpl parser) {
+        this.parser = parser;
+        parser.setReuseEvents(true);
+    }
+
+    /**
+     * Move to the next event.
+     * 
+     * @return the kind of the event or <code>null</code> at the end of the
+     *         stream
+     */
+    public Kind next() {
+        if (pending) {
+            parser.getEvent();
+            pending = false;
+        }
+        kind = null;
+        event = null;
+        while (parser.peekEvent() != null) {
+            Event next = parser.peekEvent();
+            Kind nextKind = kindOf(next);
+            if (nextKind != null) {
+                kind = nextKind;
+                event = next;
+                pending = true;
+                break;
+            }
+            // the stream start and end
+            parser.getEvent();
+        }
+        return kind;
+    }
+
+    private static Kind kindOf(Event event) {
+        if (event.is(Event.ID.Scalar)) {
+            return Kind.SCALAR;
+        } else if (event.is(Event.ID.MappingStart)) {
+            return Kind.MAPPING_START;
+        } else if (event.is(Event.ID.MappingEnd)) {
+            return Kind.MAPPING_END;
+        } else if (event.is(Event.ID.SequenceStart)) {
+            return Kind.SEQUENCE_START;
+        } else if (event.is(Event.ID.SequenceEnd)) {
+            return Kind.SEQUENCE_END;
+        } else if (event.is(Event.ID.Alias)) {
+            return Kind.ALIAS;
+        } else if (event.is(Event.ID.DocumentStart)) {
+            return Kind.DOCUMENT_START;
+        } else if (event.is(Event.ID.DocumentEnd)) {
+            return Kind.DOCUMENT_END;
+        }
+        return null;
+    }
+
+    /**
+     * @return the kind of the current event or <code>null</code> before the
+     *         first and after the last event
+     */
+    public Kind currentKind() {
+        return kind;
+    }
+
+    /**
+     * Skip the content of the current mapping or sequence, the cursor moves to
+     * its end (see ParserImpl.skipCurrentNode()). Nothing happens on the other
+     * events.
+     */
+    public void skipChildren() {
+        if (kind == Kind.MAPPING_START || kind == Kind.SEQUENCE_START) {
+            parser.skipCurrentNode();
+            pending = false;
+            event = null;
+            kind = kind == Kind.MAPPING_START ? Kind.MAPPING_END : Kind.SEQUENCE_END;
+        }
+    }
+
+    /**
+     * @return the anchor of the current node (or the anchor an alias refers
+     *         to), or <code>null</code>
+     */
+    public String getAnchor() {
+        return event instanceof NodeEvent ? ((NodeEvent) event).getAnchor() : null;
+    }
+
+    /**
+     * @return the explicit tag of the current scalar or collection, or
+     *         <code>null</code>
+     */
+    public String getTag() {
+        if (event instanceof ScalarEvent) {
+            return ((ScalarEvent) event).getTag();
+        } else if (event instanceof CollectionStartEvent) {
+            return ((CollectionStartEvent) event).getTag();
+        }
+        return null;
+    }
+
+    public Mark getStartMark() {
+        return event != null ? event.getStartMark() : null;
+    }
+
+    /**
+     * @return the value of the current scalar
+     */
+    public String getText() {
+        return scalar().getValue();
+    }
+
+    /**
+     * The value of the current scalar without creating a String. The
+     * characters are valid only until the cursor moves.
+     * 
+     * @return the value of the current scalar
+     */
+    public CharSequence getTextCharacters() {
+        return scalar().getValueSequence();
+    }
+
+    public long getLong() {
+        ScalarEvent scalar = scalar();
+        CharSequence value = scalar.getValueSequence();
+        if (isResolved(scalar) || Tag.INT.getValue().equals(scalar.getTag())) {
+            int result = decodeInt(value);
+            if (result == INT) {
+                return longValue;
+            } else if (result == TOO_LARGE) {
+                throw new YAMLException("The int is too large for a long: " + value);
+            }
+        }
+        throw new YAMLException("The scalar is not an int: " + describe(scalar));
+    }
+
+    /**
+     * @return the value of the current scalar which is a float or an int
+     */
+    public double getDouble() {
+        ScalarEvent scalar = scalar();
+        CharSequence value = scalar.getValueSequence();
+        boolean resolved = isResolved(scalar);
+        if (resolved || Tag.INT.getValue().equals(scalar.getTag())) {
+            int result = decodeInt(value);
+            if (result == INT) {
+                return longValue;
+            } else if (result == TOO_LARGE) {
+                return decodeLargeInt(value);
+            }
+        }
+        if ((resolved || Tag.FLOAT.getValue().equals(scalar.getTag())) && decodeFloat(value)) {
+            return doubleValue;
+        }
+        throw new YAMLException("The scalar is not a float: " + describe(scalar));
+    }
+
+    public boolean getBoolean() {
+        ScalarEvent scalar = scalar();
+        CharSequence value = scalar.getValueSequence();
+        // the Constructor ignores the case of an explicit bool
+        boolean ignoreCase = !isResolved(scalar);
+        if (!ignoreCase || Tag.BOOL.getValue().equals(scalar.getTag())) {
+            if (matches(value, 0, TRUE_VALUES, ignoreCase)) {
+                return true;
+            } else if (matches(value, 0, FALSE_VALUES, ignoreCase)) {
+                return false;
+            }
+        }
+        throw new YAMLException("The scalar is not a bool: " + describe(scalar));
+    }
+
+    private ScalarEvent scalar() {
+        if (kind != Kind.SCALAR) {
+            throw new YAMLException("The cursor is not on a scalar but on " + kind);
+        }
+        return (ScalarEvent) event;
+    }
+
+    /**
+     * The same condition as in the Composer: the type of the scalar is
+     * detected from its value.
+     */
+    private static boolean isResolved(ScalarEvent scalar) {
+        String tag = scalar.getTag();
+        return (tag == null || tag.equals("!")) && scalar.getImplicit().canOmitTagInPlainScalar();
+    }
+
+    private static String describe(ScalarEvent scalar) {
+        String tag = scalar.getTag();
+        return (tag != null ? tag + " " : "") + scalar.getValue();
+    }
+
+    private static boolean matches(CharSequence value, int index, String[] candidates,
+            boolean ignoreCase) {
+        int length = value.length() - index;
+        for (String candidate : candidates) {
+            if (candidate.length() != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length) {
+                char ch = value.charAt(index + i);
+                char expected = candidate.charAt(i);
+                if (ch != expected
+                        && !(ignoreCase && Character.toLowerCase(ch) == Character
+                                .toLowerCase(expected))) {
+                    break;
+                }
+                i++;
+            }
+            if (i == length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int digit(char ch, int radix) {
+        int digit;
+        if (ch >= '0' && ch <= '9') {
+            digit = ch - '0';
+        } else if (ch >= 'a' && ch <= 'f') {
+            digit = ch - 'a' + 10;
+        } else if (ch >= 'A' && ch <= 'F') {
+            digit = ch - 'A' + 10;
+        } else {
+            return -1;
+        }
+        return digit < radix ? digit : -1;
+    }
+
+    /**
+     * Add a digit to a number which is accumulated as a negative value (as in
+     * Long.parseLong()) to reach Long.MIN_VALUE.
+     * 
+     * @return the new value or 1 when the value overflows (or has overflowed
+     *         before)
+     */
+    private static long accumulate(long result, int radix, int digit, long limit) {
+        if (result > 0 || result < limit / radix) {
+            return 1;
+        }
+        result *= radix;
+        if (result < limit + digit) {
+            return 1;
+        }
+        return result - digit;
+    }
+
+    /**
+     * Decode a value which matches Resolver.INT as SafeConstructor does.
+     */
+    private int decodeInt(CharSequence value) {
+        int length = value.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+        if (index == length) {
+            return NOT_INT;
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        char first = value.charAt(index);
+        if (first == '0') {
+            // 0, 0b[0-1_]+, 0x[0-9a-fA-F_]+ or 0[0-7_]+
+            int radix = 8;
+            index++;
+            boolean digits = true;
+            if (index < length && (value.charAt(index) == 'b' || value.charAt(index) == 'x')) {
+                radix = value.charAt(index) == 'b' ? 2 : 16;
+                index++;
+                digits = false;
+                if (index == length) {
+                    return NOT_INT;
+                }
+            }
+            for (; index < length; index++) {
+                char ch = value.charAt(index);
+                if (ch == '_') {
+                    continue;
+                }
+                int digit = digit(ch, radix);
+                if (digit < 0) {
+                    return NOT_INT;
+                }
+                result = accumulate(result, radix, digit, limit);
+                digits = true;
+            }
+            if (!digits) {
+                // the Constructor fails without digits
+                return NOT_INT;
+            }
+        } else if (first >= '1' && first <= '9') {
+            // [1-9][0-9_]* or [1-9][0-9_]*(:[0-5]?[0-9])+
+            for (; index < length; index++) {
+                char ch = value.charAt(index);
+                if (ch == ':') {
+                    break;
+                } else if (ch != '_') {
+                    int digit = digit(ch, 10);
+                    if (digit < 0) {
+                        return NOT_INT;
+                    }
+                    result = accumulate(result, 10, digit, limit);
+                }
+            }
+            while (index < length) {
+                // skip ':'
+                index++;
+                int group = index < length ? digit(value.charAt(index), 10) : -1;
+                if (group < 0) {
+                    return NOT_INT;
+                }
+                index++;
+                int second = index < length ? digit(value.charAt(index), 10) : -1;
+                if (second >= 0) {
+                    if (group > 5) {
+                        return NOT_INT;
+                    }
+                    group = group * 10 + second;
+                    index++;
+                }
+                if (index < length && value.charAt(index) != ':') {
+                    return NOT_INT;
+                }
+                result = accumulate(result, 60, group, limit);
+            }
+        } else {
+            return NOT_INT;
+        }
+        if (result > 0) {
+            return TOO_LARGE;
+        }
+        longValue = negative ? result : -result;
+        return INT;
+    }
+
+    /**
+     * The value of an int which does not fit in a long (it is rare, a String is
+     * created).
+     */
+    private static double decodeLargeInt(CharSequence value) {
+        String number = value.toString().replace("_", "");
+        boolean negative = number.startsWith("-");
+        if (negative || number.startsWith("+")) {
+            number = number.substring(1);
+        }
+        double result;
+        if (number.indexOf(':') != -1) {
+            result = 0;
+            for (String group : number.split(":")) {
+                result = result * 60 + Double.parseDouble(group);
+            }
+        } else if (number.startsWith("0b") || number.startsWith("0x")) {
+            result = new BigInteger(number.substring(2), number.charAt(1) == 'b' ? 2 : 16)
+                    .doubleValue();
+        } else if (number.startsWith("0")) {
+            result = new BigInteger(number.substring(1), 8).doubleValue();
+        } else {
+            result = Double.parseDouble(number);
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Decode a value which matches Resolver.FLOAT as SafeConstructor does.
+     */
+    private boolean decodeFloat(CharSequence value) {
+        int length = value.length();
+        int index = 0;
+        boolean signed = false;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            signed = true;
+            negative = value.charAt(0) == '-';
+            index++;
+        }
+        if (index == length) {
+            return false;
+        }
+        if (value.charAt(index) == '.') {
+            if (matches(value, index + 1, INF_VALUES, false)) {
+                doubleValue = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+                return true;
+            } else if (!signed && matches(value, index + 1, NAN_VALUES, false)) {
+                doubleValue = Double.NaN;
+                return true;
+            }
+        }
+        // [0-9_]+(\.[0-9_]*)?([eE][-+]?[0-9]+)? or \.[0-9]+([eE][-+]?[0-9]+)?
+        int start = index;
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (; index < length; index++) {
+            char ch = value.charAt(index);
+            if (ch == '.' && !fraction) {
+                fraction = true;
+                continue;
+            } else if (ch == '_' && (index > start || signed) && value.charAt(start) != '.') {
+                continue;
+            } else if (ch == ':' && !fraction && index > start) {
+                return decodeSexagesimalFloat(value, start, negative);
+            }
+            int digit = digit(ch, 10);
+            if (digit < 0) {
+                break;
+            }
+            digits = true;
+            if (mantissa != 0 || digit != 0) {
+                mantissa = mantissa * 10 + digit;
+                significant++;
+                if (significant > 18) {
+                    // the fast path does not work
+                    mantissa = Long.MAX_VALUE;
+                }
+            }
+            if (fraction) {
+                exponent--;
+            }
+            if (mantissa == Long.MAX_VALUE) {
+                break;
+            }
+        }
+        if (mantissa == Long.MAX_VALUE) {
+            return decodeFloatSlowly(value, start, negative);
+        }
+        if (!digits || (value.charAt(start) == '.' && index == start + 1)) {
+            return false;
+        }
+        if (index < length && (value.charAt(index) == 'e' || value.charAt(index) == 'E')) {
+            index++;
+            boolean negativeExponent = false;
+            if (index < length && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+                negativeExponent = value.charAt(index) == '-';
+                index++;
+            }
+            int explicit = 0;
+            boolean exponentDigits = false;
+            for (; index < length; index++) {
+                int digit = digit(value.charAt(index), 10);
+                if (digit < 0) {
+                    return false;
+                }
+                exponentDigits = true;
+                if (explicit < 100000) {
+                    explicit = explicit * 10 + digit;
+                }
+            }
+            if (!exponentDigits) {
+                return false;
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (index != length) {
+            return false;
+        }
+        double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (significant <= 15 && exponent >= -22 && exponent <= 22) {
+            // both numbers are exact, the result is correctly rounded
+            result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa
+                    / POWERS_OF_TEN[-exponent];
+        } else {
+            return decodeFloatSlowly(value, start, negative);
+        }
+        doubleValue = negative ? -result : result;
+        return true;
+    }
+
+    /**
+     * A float with too many digits for decodeFloat() (a String is created).
+     */
+    private boolean decodeFloatSlowly(CharSequence value, int start, boolean negative) {
+        String number = value.subSequence(start, value.length()).toString();
+        int exponent = Math.max(number.indexOf('e'), number.indexOf('E'));
+        if (number.startsWith(".") && number.indexOf('_') != -1 || exponent != -1
+                && number.indexOf('_', exponent) != -1) {
+            return false;
+        }
+        number = number.replace("_", "");
+        for (int i = 0; i < number.length(); i++) {
+            char ch = number.charAt(i);
+            if (digit(ch, 10) < 0 && ch != '.' && ch != 'e' && ch != 'E' && ch != '-'
+                    && ch != '+') {
+                return false;
+            }
+        }
+        try {
+            double result = Double.parseDouble(number);
+            doubleValue = negative ? -result : result;
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * [0-9][0-9_]*(:[0-5]?[0-9])+\.[0-9_]* (a String is created)
+     */
+    private boolean decodeSexagesimalFloat(CharSequence value, int start, boolean negative) {
+        String number = value.subSequence(start, value.length()).toString();
+        if (!number.matches("[0-9][0-9_]*(?::[0-5]?[0-9])+\\.[0-9_]*")) {
+            return false;
+        }
+        double result = 0;
+        for (String group : number.replace("_", "").split(":")) {
+            result = result * 60 + Double.parseDouble(group);
+        }
+        doubleValue = negative ? -result : result;
+        return true;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The characters of a large scalar kept outside of the Java heap, in direct
+ * buffers of a fixed size. The characters are appended while the scalar is
+ * scanned and they are read with openReader() or charAt() without creating
+ * a String. The memory is released when the sequence is garbage collected.
+ */
+public final class DirectCharSequence implements CharSequence {
+    private static final int CHUNK_SHIFT = 15;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final List<CharBuffer> chunks = new ArrayList<CharBuffer>();
+    private int length = 0;
+
+    public DirectCharSequence append(char[] chars, int offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > chars.length) {
+            throw new IndexOutOfBoundsException("Offset: " + offset + ", Count: " + count
+                    + ", Length: " + chars.length);
+        }
+        while (count > 0) {
+            CharBuffer chunk = lastChunk();
+            int copied = Math.min(count, chunk.remaining());
+            chunk.put(chars, offset, copied);
+            offset += copied;
+            count -= copied;
+            length += copied;
+        }
+        return this;
+    }
+
+    public DirectCharSequence append(CharSequence chars) {
+        int start = 0;
+        int end = chars.length();
+        while (start < end) {
+            CharBuffer chunk = lastChunk();
+            int copied = Math.min(end - start, chunk.remaining());
+            chunk.append(chars, start, start + copied);
+            start += copied;
+            length += copied;
+        }
+        return this;
+    }
+
+    /**
+     * @return the last chunk with some free space (a new one when the last
+     *         chunk is full)
+     */
+    private CharBuffer lastChunk() {
+        if ((length & CHUNK_MASK) == 0 && length >> CHUNK_SHIFT == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE * 2).asCharBuffer());
+        }
+        return chunks.get(chunks.size() - 1);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+        return chunks.get(index >> CHUNK_SHIFT).get(index & CHUNK_MASK);
+    }
+
+    /**
+     * The characters are copied to the heap, the subsequence should be small.
+     */
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end
+                    + ", Length: " + length);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(charAt(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return a new Reader of all the characters. Many Readers may be open at
+     *         the same time.
+     */
+    public Reader openReader() {
+        return new ChunkReader();
+    }
+
+    /**
+     * @return a new String with all the characters (it is as large as the
+     *         sequence)
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length);
+        for (CharBuffer chunk : chunks) {
+            CharBuffer copy = chunk.duplicate();
+            copy.flip();
+            builder.append(copy);
+        }
+        return builder.toString();
+    }
+
+    private class ChunkReader extends Reader {
+        private int position = 0;
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            } else if (position == length) {
+                return -1;
+            }
+            int count = Math.min(len, length - position);
+            int read = 0;
+            while (read < count) {
+                CharBuffer chunk = chunks.get(position >> CHUNK_SHIFT).duplicate();
+                chunk.position(position & CHUNK_MASK);
+                int copied = Math.min(count - read, CHUNK_SIZE - chunk.position());
+                chunk.get(cbuf, off + read, copied);
+                read += copied;
+                position += copied;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release, the characters belong to the sequence
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Thrown by the StreamReader which gets its input with feed() when the
+ * characters which are not fed yet are required. It is not an error: the work
+ * must be repeated (from a checkpoint) when more input is available.
+ */
+public class NeedMoreInputException extends YAMLException {
+    private static final long serialVersionUID = 4393584216393829420L;
+
+    static final NeedMoreInputException INSTANCE = new NeedMoreInputException();
+
+    private NeedMoreInputException() {
+        super("More input is required.");
+    }
+
+    /**
+     * The exception is only a signal, the stack trace is not required.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
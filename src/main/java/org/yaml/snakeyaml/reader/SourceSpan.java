@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+/**
+ * The characters of the source String between two positions. The characters
+ * are not copied until toString() is called. The span keeps the whole source
+ * in memory, it should be replaced with the String when the value is used.
+ */
+public final class SourceSpan implements CharSequence {
+    private final String source;
+    private final int offset;
+    private final int length;
+
+    public SourceSpan(String source, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > source.length()) {
+            throw new IndexOutOfBoundsException("Span " + offset + "+" + length
+                    + " is outside of the source of length " + source.length());
+        }
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length);
+        }
+        return source.charAt(offset + index);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end
+                    + ", Length: " + length);
+        }
+        return new SourceSpan(source, offset + start, end - start);
+    }
+
+    /**
+     * @return the position of the first character in the source
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return a new String with the characters of the span
+     */
+    @Override
+    public String toString() {
+        return source.substring(offset, offset + length);
+    }
+}
@@ -17,55 +17,236 @@ package org.yaml.snakeyaml.reader;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
-import java.util.regex.Matcher;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
+import org.yaml.snakeyaml.LoaderOptions.MarkMode;
 import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkSource;
 import org.yaml.snakeyaml.error.YAMLException;
-import org.yaml.snakeyaml.scanner.Constant;
 
 /**
- * Reader: checks if characters are in allowed range, adds '\0' to the end.
+ * Reader: checks if characters are in allowed range, returns '\0' at the end.
+ * <p>
+ * The data is kept in a char[] window which slides over the input. When more
+ * data is required the unread part of the window is moved to the beginning and
+ * the rest of the window is filled directly from the underlying
+ * <code>Reader</code> or <code>CharSequence</code>. The window grows only when
+ * a single look-ahead does not fit into it, so the memory required for a stream
+ * does not depend on its size. A <code>CharBuffer</code> which wraps a whole
+ * array is read in place: the array itself is the window.
+ * </p>
+ * <p>
+ * In <code>MarkMode.SNIPPET</code> (the default) the Marks of the input from a
+ * <code>Reader</code> refer to the window for the snippet. A window with Marks
+ * is never overwritten: the next update allocates a new one, and the windows
+ * stay in memory as long as their Marks (for instance in the Nodes). Use
+ * <code>MarkMode.POSITION</code> or <code>MarkMode.NONE</code> to reuse one
+ * window for the whole stream.
+ * </p>
+ * <p>
+ * The reader created without input gets it with <code>feed()</code>. When the
+ * characters which are not fed yet are required NeedMoreInputException is
+ * thrown. The work can be repeated from the checkpoint when more characters
+ * are fed (the characters after the checkpoint are kept in the window).
+ * </p>
+ * <p>
+ * Only the index is updated when the characters are consumed. The line and
+ * the column are calculated when they are requested: the characters consumed
+ * since the previous request are scanned for line breaks (at the latest before
+ * they leave the window).
+ * </p>
  */
 public class StreamReader {
     public final static Pattern NON_PRINTABLE = Pattern
             .compile("[^\t\n\r\u0020-\u007E\u0085\u00A0-\uD7FF\uE000-\uFFFD]");
+    /**
+     * Default size of the window (in chars) used to read from a
+     * <code>Reader</code>
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    /**
+     * the highest bit of each of the 4 chars packed into a long
+     */
+    private static final long HIGH_BITS = 0x8000800080008000L;
     private String name;
     private final Reader stream;
+    /**
+     * The input when it is in memory (then stream is null)
+     */
+    private final CharSequence text;
+    /**
+     * The position in the text of the next character to be read into the
+     * window
+     */
+    private int textPosition = 0;
+    /**
+     * Read data (as a moving window for input stream)
+     */
+    private char[] dataWindow;
+    /**
+     * Real length of the data in dataWindow
+     */
+    private int dataLength;
+    /**
+     * The variable points to the current position in the data array
+     */
     private int pointer = 0;
-    private boolean eof = true;
-    private String buffer;
-    private int index = 0;
+    private boolean eof;
+    private int index = 0; // in chars
+    /**
+     * The characters before scannedIndex are already scanned for line breaks
+     */
+    private int scannedIndex = 0;
+    /**
+     * The line of the scannedIndex
+     */
     private int line = 0;
-    private int column = 0;
-    private char[] data;
+    /**
+     * The index of the first character of the line
+     */
+    private int lineStart = 0;
+    /**
+     * The number of BOMs in the line before scannedIndex (they are not
+     * counted in the column)
+     */
+    private int lineBoms = 0;
+    /**
+     * <code>true</code> when the character before scannedIndex is '\r'. It is
+     * a line break only when it is not followed by '\n'.
+     */
+    private boolean pendingCarriageReturn = false;
+    /**
+     * <code>true</code> when a Mark refers to the current window. Such a window
+     * must not be changed anymore and the next update uses a new array.
+     */
+    private boolean windowShared = false;
+    /**
+     * <code>false</code> when the Reader checks the characters itself
+     */
+    private final boolean checkPrintable;
+    private MarkMode markMode = MarkMode.SNIPPET;
+    /**
+     * the whole input (only when it is known) for the Marks without buffer
+     */
+    private final MarkSource source;
+    /**
+     * The index of the input in a larger stream (only for the Marks)
+     */
+    private int startIndex = 0;
+    /**
+     * The index to return to (-1 when there is no checkpoint)
+     */
+    private int checkpointIndex = -1;
+    private int checkpointLine;
+    private int checkpointLineStart;
+    private int checkpointLineBoms;
+    private boolean checkpointCarriageReturn;
+
+    /**
+     * Create a reader which gets its input with <code>feed()</code>
+     */
+    public StreamReader() {
+        this.name = "'reader'";
+        this.stream = null;
+        this.text = null;
+        this.checkPrintable = true;
+        this.source = null;
+        this.dataWindow = new char[DEFAULT_BUFFER_SIZE];
+        this.dataLength = 0;
+        this.eof = false;
+    }
 
     public StreamReader(String stream) {
+        this((CharSequence) stream);
+    }
+
+    /**
+     * Read the characters from memory without copying the whole input. The
+     * input must not be changed while it is parsed.
+     * 
+     * @param text
+     *            the characters (String, StringBuilder, CharBuffer etc.)
+     */
+    public StreamReader(CharSequence text) {
         this.name = "'string'";
-        this.buffer = ""; // to set length to 0
-        checkPrintable(stream);
-        this.buffer = stream + "\0";
         this.stream = null;
-        this.eof = true;
-        this.data = null;
+        this.text = text;
+        this.checkPrintable = true;
+        this.source = new MarkSource(text);
+        this.dataLength = 0;
+        char[] array = getWholeArray(text);
+        if (array != null) {
+            checkPrintable(array, 0, array.length);
+            this.dataWindow = array;
+            this.dataLength = array.length;
+            this.textPosition = array.length;
+            this.eof = true;
+        } else {
+            int size = Math.min(text.length(), DEFAULT_BUFFER_SIZE);
+            this.dataWindow = new char[Math.max(size, 1)];
+            this.eof = false;
+            this.update(0);
+        }
+    }
+
+    /**
+     * @return the array with exactly the same characters or null
+     */
+    private static char[] getWholeArray(CharSequence text) {
+        if (text instanceof CharBuffer) {
+            CharBuffer buffer = (CharBuffer) text;
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                    && buffer.limit() == buffer.array().length) {
+                return buffer.array();
+            }
+        }
+        return null;
     }
 
     public StreamReader(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create a reader with the given size of the window
+     * 
+     * @param reader
+     *            the source of the characters
+     * @param bufferSize
+     *            the initial size of the window (in chars). The window is
+     *            enlarged only if a single look-ahead requires more data.
+     */
+    public StreamReader(Reader reader, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new YAMLException("Buffer size must be at least 1.");
+        }
         this.name = "'reader'";
-        this.buffer = "";
+        this.dataWindow = new char[bufferSize];
+        this.dataLength = 0;
         this.stream = reader;
+        this.text = null;
         this.eof = false;
-        this.data = new char[1024];
-        this.update();
+        this.source = null;
+        if (reader instanceof UnicodeReader) {
+            // characters are checked while they are decoded
+            ((UnicodeReader) reader).checkPrintable(name);
+            this.checkPrintable = false;
+        } else {
+            this.checkPrintable = true;
+        }
+        this.update(0);
     }
 
     void checkPrintable(CharSequence data) {
-        Matcher em = NON_PRINTABLE.matcher(data);
-        if (em.find()) {
-            int position = this.index + this.buffer.length() - this.pointer + em.start();
-            throw new ReaderException(name, position, em.group().charAt(0),
-                    "special characters are not allowed");
+        for (int i = 0; i < data.length(); i++) {
+            final char c = data.charAt(i);
+            if (!isPrintable(c)) {
+                int position = startIndex + this.index + this.dataLength - this.pointer + i;
+                throw new ReaderException(name, position, c, "special characters are not allowed");
+            }
         }
     }
 
@@ -82,15 +263,36 @@ public class StreamReader {
      *             if <code>chars</code> contains non-printable character(s).
      */
     void checkPrintable(final char[] chars, final int begin, final int end) {
-        for (int i = begin; i < end; i++) {
-            final char c = chars[i];
-
-            if (isPrintable(c)) {
-                continue;
+        int i = begin;
+        // the fast path: check 4 ASCII chars at once
+        for (final int last = end - 3; i < last; i += 4) {
+            final char c0 = chars[i];
+            final char c1 = chars[i + 1];
+            final char c2 = chars[i + 2];
+            final char c3 = chars[i + 3];
+            if ((c0 | c1 | c2 | c3) < 0x80) {
+                // no carry between the chars: each of them is below 0x80
+                final long packed = c0 | ((long) c1 << 16) | ((long) c2 << 32) | ((long) c3 << 48);
+                // the high bit is set only for the chars >= 0x7F
+                boolean belowDelete = ((packed + 0x7F817F817F817F81L) & HIGH_BITS) == 0;
+                // the high bit is set only for the chars >= 0x20 (space)
+                boolean aboveSpace = ((packed + 0x7FE07FE07FE07FE0L) & HIGH_BITS) == HIGH_BITS;
+                if (belowDelete && aboveSpace) {
+                    continue;
+                }
             }
+            checkPrintable(chars, begin, i, i + 4);
+        }
+        checkPrintable(chars, begin, i, end);
+    }
 
-            int position = this.index + this.buffer.length() - this.pointer + i;
-            throw new ReaderException(name, position, c, "special characters are not allowed");
+    private void checkPrintable(final char[] chars, final int begin, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final char c = chars[i];
+            if (!isPrintable(c)) {
+                int position = startIndex + this.index + this.dataLength - this.pointer + i - begin;
+                throw new ReaderException(name, position, c, "special characters are not allowed");
+            }
         }
     }
 
@@ -100,8 +302,37 @@ public class StreamReader {
                 || (c >= '\uE000' && c <= '\uFFFD');
     }
 
+    /**
+     * Create the Mark of the current position. In <code>MarkMode.SNIPPET</code>
+     * for the input which is not in memory the Mark refers to the window, so
+     * the next update of the window allocates a new array.
+     */
     public Mark getMark() {
-        return new Mark(name, this.index, this.line, this.column, this.buffer, this.pointer);
+        if (markMode == MarkMode.NONE) {
+            return Mark.UNKNOWN;
+        } else if (markMode == MarkMode.POSITION || source != null) {
+            // the snippet of the input in memory is built from the input
+            return new Mark(name, startIndex + this.index, getLine(), getColumn(), source);
+        }
+        // may load more data
+        int line = getLine();
+        int column = getColumn();
+        // the window is referenced by the Mark and may not be overwritten
+        this.windowShared = true;
+        return new Mark(name, startIndex + this.index, line, column, this.dataWindow,
+                this.pointer);
+    }
+
+    /**
+     * Create the Mark to report an error at the current position. Unlike
+     * <code>getMark()</code> it always refers to the position, in
+     * <code>MarkMode.NONE</code> it keeps only the index.
+     */
+    public Mark getErrorMark() {
+        if (markMode == MarkMode.NONE) {
+            return new Mark(name, startIndex + this.index, -1, -1, (MarkSource) null);
+        }
+        return getMark();
     }
 
     public void forward() {
@@ -114,25 +345,16 @@ public class StreamReader {
      * @param length
      */
     public void forward(int length) {
-        if (this.pointer + length + 1 >= this.buffer.length()) {
-            update();
-        }
-        char ch = 0;
-        for (int i = 0; i < length; i++) {
-            ch = this.buffer.charAt(this.pointer);
-            this.pointer++;
-            this.index++;
-            if (Constant.LINEBR.has(ch) || (ch == '\r' && buffer.charAt(pointer) != '\n')) {
-                this.line++;
-                this.column = 0;
-            } else if (ch != '\uFEFF') {
-                this.column++;
-            }
+        if (length > 0) {
+            ensureEnoughData(length - 1);
+            int forwarded = Math.min(length, dataLength - pointer);
+            this.pointer += forwarded;
+            this.index += forwarded;
         }
     }
 
     public char peek() {
-        return this.buffer.charAt(this.pointer);
+        return ensureEnoughData() ? dataWindow[pointer] : '\0';
     }
 
     /**
@@ -142,10 +364,7 @@ public class StreamReader {
      * @return the next index-th character
      */
     public char peek(int index) {
-        if (this.pointer + index + 1 > this.buffer.length()) {
-            update();
-        }
-        return this.buffer.charAt(this.pointer + index);
+        return ensureEnoughData(index) ? dataWindow[pointer + index] : '\0';
     }
 
     /**
@@ -155,13 +374,13 @@ public class StreamReader {
      * @return the next length characters
      */
     public String prefix(int length) {
-        if (this.pointer + length >= this.buffer.length()) {
-            update();
-        }
-        if (this.pointer + length > this.buffer.length()) {
-            return this.buffer.substring(this.pointer);
+        if (length == 0) {
+            return "";
+        } else if (ensureEnoughData(length - 1)) {
+            return new String(this.dataWindow, pointer, length);
+        } else {
+            return new String(this.dataWindow, pointer, Math.min(length, dataLength - pointer));
         }
-        return this.buffer.substring(this.pointer, this.pointer + length);
     }
 
     /**
@@ -169,41 +388,374 @@ public class StreamReader {
      */
     public String prefixForward(int length) {
         final String prefix = prefix(length);
-        this.pointer += length;
-        this.index += length;
-        // prefix never contains new line characters
-        this.column += length;
+        final int forwarded = prefix.length();
+        this.pointer += forwarded;
+        this.index += forwarded;
         return prefix;
     }
 
-    private void update() {
-        if (!this.eof) {
-            this.buffer = buffer.substring(this.pointer);
-            this.pointer = 0;
-            try {
-                int converted = this.stream.read(data);
+    /**
+     * Direct access to the characters which are read but not consumed yet,
+     * they start at getPointer(). The array is valid until the next call
+     * which may read more input (peek, prefix, forward, available). The
+     * characters must not be changed.
+     * 
+     * @return the current window
+     */
+    public char[] getWindow() {
+        return dataWindow;
+    }
+
+    /**
+     * @return the position of the next character in the window
+     */
+    public int getPointer() {
+        return pointer;
+    }
+
+    /**
+     * Read more input when fewer than size characters follow the pointer in
+     * the window. The window and the pointer may change.
+     * 
+     * @param size
+     *            the required number of characters
+     * @return the number of the characters after the pointer (it is less than
+     *         size only at the end of the input)
+     */
+    public int available(int size) {
+        ensureEnoughData(size - 1);
+        return dataLength - pointer;
+    }
+
+    /**
+     * @return true when the input is a String and getSpan() can be used
+     */
+    public boolean supportsSpans() {
+        return text instanceof String;
+    }
+
+    /**
+     * The characters between the indices without copying them. The input must
+     * be a String.
+     * 
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     * @return the span of the input
+     */
+    public CharSequence getSpan(int start, int end) {
+        if (!supportsSpans()) {
+            throw new YAMLException("Spans require a String input.");
+        }
+        return new SourceSpan((String) text, start, end - start);
+    }
+
+    private boolean ensureEnoughData() {
+        return ensureEnoughData(0);
+    }
+
+    /**
+     * Make sure that the character at the given offset from the pointer is
+     * loaded.
+     * 
+     * @param size
+     *            offset from the current pointer
+     * @return <code>false</code> if the end of the stream is reached before
+     *         the required position
+     */
+    private boolean ensureEnoughData(int size) {
+        if (!eof && pointer + size >= dataLength) {
+            update(size);
+        }
+        return (this.pointer + size) < dataLength;
+    }
+
+    /**
+     * Slide the window to the pointer and read from the stream until the
+     * character at the given offset is available or the end of the stream is
+     * reached.
+     */
+    private void update(int size) {
+        if (stream == null && text == null) {
+            // the input is fed
+            throw NeedMoreInputException.INSTANCE;
+        }
+        // the consumed characters are about to leave the window
+        scanLines();
+        int unread = dataLength - pointer;
+        int required = size + 1;
+        int capacity = dataWindow.length;
+        if (required > capacity || unread > capacity / 2) {
+            // a long look-ahead: enlarge the window to keep the refills rare
+            capacity = Math.max(required, capacity * 2);
+        }
+        char[] target = dataWindow;
+        if (windowShared || capacity != target.length) {
+            target = new char[capacity];
+            windowShared = false;
+        }
+        System.arraycopy(dataWindow, pointer, target, 0, unread);
+        int previousLength = target == dataWindow ? dataLength : 0;
+        this.dataWindow = target;
+        this.dataLength = unread;
+        this.pointer = 0;
+        try {
+            while (!eof && dataLength < required) {
+                int converted = read(dataWindow, dataLength, dataWindow.length - dataLength);
                 if (converted > 0) {
-                    /*
-                     * Let's create StringBuilder manually. Anyway str1 + str2
-                     * generates new StringBuilder(str1).append(str2).toSting()
-                     * Giving correct capacity to the constructor prevents
-                     * unnecessary operations in appends.
-                     */
-                    checkPrintable(data, 0, converted);
-                    this.buffer = new StringBuilder(buffer.length() + converted).append(buffer)
-                            .append(data, 0, converted).toString();
-                } else {
+                    if (checkPrintable) {
+                        checkPrintable(dataWindow, dataLength, dataLength + converted);
+                    }
+                    dataLength += converted;
+                } else if (converted < 0) {
                     this.eof = true;
-                    this.buffer += "\0";
                 }
-            } catch (IOException ioe) {
-                throw new YAMLException(ioe);
+            }
+        } catch (IOException ioe) {
+            throw new YAMLException(ioe);
+        }
+        // do not leave old characters after the data (they may appear in the
+        // snippet of a Mark)
+        if (dataLength < previousLength) {
+            Arrays.fill(dataWindow, dataLength, previousLength, '\0');
+        }
+    }
+
+    /**
+     * Read from the stream or copy from the text
+     */
+    private int read(char[] buffer, int offset, int length) throws IOException {
+        if (stream != null) {
+            return stream.read(buffer, offset, length);
+        }
+        int count = Math.min(length, text.length() - textPosition);
+        if (count <= 0) {
+            return -1;
+        }
+        int end = textPosition + count;
+        if (text instanceof String) {
+            ((String) text).getChars(textPosition, end, buffer, offset);
+        } else if (text instanceof StringBuilder) {
+            ((StringBuilder) text).getChars(textPosition, end, buffer, offset);
+        } else if (text instanceof StringBuffer) {
+            ((StringBuffer) text).getChars(textPosition, end, buffer, offset);
+        } else if (text instanceof CharBuffer) {
+            CharBuffer chars = ((CharBuffer) text).duplicate();
+            chars.position(chars.position() + textPosition);
+            chars.get(buffer, offset, count);
+        } else {
+            for (int i = textPosition; i < end; i++) {
+                buffer[offset++] = text.charAt(i);
+            }
+        }
+        textPosition = end;
+        return count;
+    }
+
+    /**
+     * Add the characters to the input of the reader created without input.
+     * 
+     * @param chars
+     *            the characters to add
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters
+     */
+    public void feed(char[] chars, int offset, int length) {
+        if (stream != null || text != null) {
+            throw new YAMLException("The input is already given.");
+        }
+        if (eof) {
+            throw new YAMLException("The end of the input is already reached.");
+        }
+        checkPrintable(chars, offset, offset + length);
+        if (dataLength + length > dataWindow.length) {
+            // the characters before the checkpoint (or before the pointer) are
+            // not required anymore
+            int keep;
+            if (checkpointIndex < 0) {
+                scanLines();
+                keep = pointer;
+            } else {
+                keep = pointer - (index - checkpointIndex);
+            }
+            int unread = dataLength - keep;
+            int required = unread + length;
+            int capacity = dataWindow.length;
+            if (required > capacity || unread > capacity / 2) {
+                capacity = Math.max(required, capacity * 2);
+            }
+            char[] target = dataWindow;
+            if (windowShared || capacity != target.length) {
+                target = new char[capacity];
+                windowShared = false;
+            }
+            System.arraycopy(dataWindow, keep, target, 0, unread);
+            if (target == dataWindow && required < dataLength) {
+                // do not leave old characters after the data
+                Arrays.fill(dataWindow, required, dataLength, '\0');
+            }
+            this.dataWindow = target;
+            this.dataLength = unread;
+            this.pointer -= keep;
+        }
+        // it is safe for the Marks: the characters they refer to do not change
+        System.arraycopy(chars, offset, dataWindow, dataLength, length);
+        dataLength += length;
+    }
+
+    /**
+     * No more characters are going to be fed.
+     */
+    public void endOfInput() {
+        this.eof = true;
+    }
+
+    /**
+     * @return <code>true</code> when the whole input is known
+     */
+    public boolean isEndOfInput() {
+        return eof;
+    }
+
+    /**
+     * Remember the current position to return to it with
+     * <code>rollback()</code>. The characters after it are kept. It is used
+     * for the input which is fed.
+     */
+    public void setCheckpoint() {
+        scanLines();
+        this.checkpointIndex = index;
+        this.checkpointLine = line;
+        this.checkpointLineStart = lineStart;
+        this.checkpointLineBoms = lineBoms;
+        this.checkpointCarriageReturn = pendingCarriageReturn;
+    }
+
+    /**
+     * Return to the checkpoint. It stays until <code>clearCheckpoint()</code>
+     */
+    public void rollback() {
+        if (checkpointIndex < 0) {
+            throw new YAMLException("No checkpoint to return to.");
+        }
+        this.pointer -= index - checkpointIndex;
+        this.index = checkpointIndex;
+        this.scannedIndex = checkpointIndex;
+        this.line = checkpointLine;
+        this.lineStart = checkpointLineStart;
+        this.lineBoms = checkpointLineBoms;
+        this.pendingCarriageReturn = checkpointCarriageReturn;
+    }
+
+    public void clearCheckpoint() {
+        this.checkpointIndex = -1;
+    }
+
+    public MarkMode getMarkMode() {
+        return markMode;
+    }
+
+    /**
+     * The position of the input in a larger stream, the Marks and the errors
+     * refer to the whole stream. It must be set before the input is read. It
+     * is not supported for the text in memory (the snippet of a Mark is built
+     * from the text by the index).
+     * 
+     * @param index
+     *            the index of the first character (0 by default)
+     * @param line
+     *            the line of the first character (0 by default)
+     */
+    public void setStartPosition(int index, int line) {
+        if (source != null) {
+            throw new IllegalStateException("The text in memory cannot be shifted.");
+        }
+        this.startIndex = index;
+        this.line = line;
+    }
+
+    /**
+     * Define what the Marks keep. The default is <code>MarkMode.SNIPPET</code>
+     * 
+     * @param markMode
+     *            mode for the next Marks
+     */
+    public void setMarkMode(MarkMode markMode) {
+        if (markMode == null) {
+            throw new NullPointerException("Use MarkMode enum.");
+        }
+        this.markMode = markMode;
+    }
+
+    /**
+     * Release the input in memory from the Marks (see MarkSource). The Marks
+     * which are already created keep the position, but they lose the
+     * snippet. Nothing is done for the other input.
+     */
+    public void releaseSource() {
+        if (source != null) {
+            source.release();
+        }
+    }
+
+    /**
+     * Scan the consumed characters for the line breaks.
+     */
+    private void scanLines() {
+        // the index of the first character in the window
+        final int offset = this.index - this.pointer;
+        final char[] data = this.dataWindow;
+        for (int i = scannedIndex - offset; i < pointer; i++) {
+            final char ch = data[i];
+            if (pendingCarriageReturn) {
+                pendingCarriageReturn = false;
+                if (ch != '\n') {
+                    newLine(i + offset);
+                }
+            }
+            switch (ch) {
+            case '\n':
+            case '\u0085':
+            case '\u2028':
+            case '\u2029':
+                newLine(i + offset + 1);
+                break;
+            case '\r':
+                pendingCarriageReturn = true;
+                break;
+            case '\uFEFF':
+                lineBoms++;
+                break;
+            default:
+                break;
             }
         }
+        scannedIndex = index;
+    }
+
+    private void newLine(int start) {
+        this.line++;
+        this.lineStart = start;
+        this.lineBoms = 0;
+    }
+
+    /**
+     * @return <code>true</code> if the consumed '\r' at the end is a line
+     *         break (the current character is not '\n')
+     */
+    private boolean isLastLineBreak() {
+        scanLines();
+        return pendingCarriageReturn && peek() != '\n';
     }
 
     public int getColumn() {
-        return column;
+        if (isLastLineBreak()) {
+            return 0;
+        }
+        return index - lineStart - lineBoms;
     }
 
     public Charset getEncoding() {
@@ -215,6 +767,9 @@ public class StreamReader {
     }
 
     public int getLine() {
+        if (isLastLineBreak()) {
+            return line + 1;
+        }
         return line;
     }
 }
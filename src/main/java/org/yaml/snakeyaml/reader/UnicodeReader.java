@@ -39,33 +39,74 @@ package org.yaml.snakeyaml.reader;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PushbackInputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
 
 /**
  * Generic unicode textreader, which will use BOM mark to identify the encoding
  * to be used. If BOM is not found then use a given default or system encoding.
+ * <p>
+ * UTF-8 (the most common case) is decoded directly from the internal byte
+ * buffer into the array given to <code>read()</code>, runs of ASCII characters
+ * are copied without any further checks. Other encodings use a
+ * <code>CharsetDecoder</code> over the same byte buffer.
+ * </p>
+ * <p>
+ * The bytes may also come from a <code>ByteBuffer</code> (for instance a
+ * <code>MappedByteBuffer</code> of a file). Then they are copied in bulk from
+ * the buffer and no <code>InputStream</code> is involved.
+ * </p>
  */
 public class UnicodeReader extends Reader {
     private static final Charset UTF8 = Charset.forName("UTF-8");
     private static final Charset UTF16BE = Charset.forName("UTF-16BE");
     private static final Charset UTF16LE = Charset.forName("UTF-16LE");
 
-    PushbackInputStream internalIn;
-    InputStreamReader internalIn2 = null;
-
     private static final int BOM_SIZE = 3;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    // bytes[position..limit) are not decoded yet
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private Charset encoding = null;
+    // only for the encodings other then UTF-8
+    private CharsetDecoder decoder = null;
+    private ByteBuffer byteBuffer = null;
+    private boolean flushed = false;
+    // number of characters returned so far (to report the position)
+    private int count = 0;
+    // the low surrogate which did not fit into the previous read()
+    private char pendingLowSurrogate = 0;
+    // not null when the characters must be checked (see StreamReader)
+    private String name = null;
 
     /**
      * @param in
      *            InputStream to be read
      */
     public UnicodeReader(InputStream in) {
-        internalIn = new PushbackInputStream(in, BOM_SIZE);
+        this.in = in;
+        this.source = null;
+    }
+
+    /**
+     * @param source
+     *            the bytes between the position and the limit of the buffer
+     *            are read. The position of the buffer is advanced.
+     */
+    public UnicodeReader(ByteBuffer source) {
+        this.in = null;
+        this.source = source;
     }
 
     /**
@@ -73,53 +114,270 @@ public class UnicodeReader extends Reader {
      * read() method to initialize it.
      */
     public String getEncoding() {
-        return internalIn2.getEncoding();
+        return encoding == null ? null : encoding.name();
     }
 
     /**
-     * Read-ahead four bytes and check for BOM marks. Extra bytes are unread
-     * back to the stream, only BOM bytes are skipped.
+     * Check the characters while they are decoded. Then StreamReader does not
+     * need to check them again.
+     * 
+     * @param name
+     *            the name to report in ReaderException
+     */
+    void checkPrintable(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Read-ahead four bytes and check for BOM marks. Extra bytes are kept in
+     * the buffer, only BOM bytes are skipped.
      */
     protected void init() throws IOException {
-        if (internalIn2 != null)
+        if (encoding != null)
             return;
 
-        Charset encoding;
-        byte bom[] = new byte[BOM_SIZE];
-        int n, unread;
-        n = internalIn.read(bom, 0, bom.length);
-
-        if ((bom[0] == (byte) 0xEF) && (bom[1] == (byte) 0xBB) && (bom[2] == (byte) 0xBF)) {
+        fill(BOM_SIZE);
+        int n = limit;
+        byte[] bom = bytes;
+        if (n >= 3 && (bom[0] == (byte) 0xEF) && (bom[1] == (byte) 0xBB)
+                && (bom[2] == (byte) 0xBF)) {
             encoding = UTF8;
-            unread = n - 3;
-        } else if ((bom[0] == (byte) 0xFE) && (bom[1] == (byte) 0xFF)) {
+            position = 3;
+        } else if (n >= 2 && (bom[0] == (byte) 0xFE) && (bom[1] == (byte) 0xFF)) {
             encoding = UTF16BE;
-            unread = n - 2;
-        } else if ((bom[0] == (byte) 0xFF) && (bom[1] == (byte) 0xFE)) {
+            position = 2;
+        } else if (n >= 2 && (bom[0] == (byte) 0xFF) && (bom[1] == (byte) 0xFE)) {
             encoding = UTF16LE;
-            unread = n - 2;
+            position = 2;
         } else {
-            // Unicode BOM mark not found, unread all bytes
+            // Unicode BOM mark not found, use UTF-8
             encoding = UTF8;
-            unread = n;
+            position = 0;
         }
 
-        if (unread > 0)
-            internalIn.unread(bom, (n - unread), unread);
-
-        // Use given encoding
-        CharsetDecoder decoder = encoding.newDecoder().onUnmappableCharacter(
-                CodingErrorAction.REPORT);
-        internalIn2 = new InputStreamReader(internalIn, decoder);
+        if (encoding != UTF8) {
+            // Use given encoding
+            decoder = encoding.newDecoder().onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .onMalformedInput(CodingErrorAction.REPORT);
+            byteBuffer = ByteBuffer.wrap(bytes);
+        }
     }
 
     public void close() throws IOException {
-        init();
-        internalIn2.close();
+        if (in != null) {
+            in.close();
+        }
     }
 
     public int read(char[] cbuf, int off, int len) throws IOException {
         init();
-        return internalIn2.read(cbuf, off, len);
+        if (len == 0) {
+            return 0;
+        }
+        int n;
+        if (decoder == null) {
+            n = readUtf8(cbuf, off, len);
+        } else {
+            n = readDecoded(cbuf, off, len);
+        }
+        if (n <= 0) {
+            return -1;
+        }
+        if (name != null && decoder != null) {
+            checkPrintable(cbuf, off, off + n);
+        }
+        count += n;
+        return n;
+    }
+
+    /**
+     * Decode UTF-8. The printable characters are checked in the same pass.
+     */
+    private int readUtf8(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        final byte[] src = bytes;
+        final boolean check = name != null;
+        int pos = off;
+        if (pendingLowSurrogate != 0) {
+            cbuf[pos++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        while (pos < end) {
+            if (position == limit) {
+                // do not wait for the stream when there is something to return
+                if (pos > off || !fill(1)) {
+                    break;
+                }
+            }
+            // the fast path for ASCII
+            int p = position;
+            final int stop = p + Math.min(end - pos, limit - p);
+            while (p < stop) {
+                final byte b = src[p];
+                if (b < 0x20 || b == 0x7F) {
+                    break;
+                }
+                cbuf[pos++] = (char) b;
+                p++;
+            }
+            position = p;
+            if (p == stop) {
+                continue;
+            }
+            final int b = src[p] & 0xFF;
+            if (b < 0x80) {
+                // control characters
+                if (check && b != '\n' && b != '\r' && b != '\t') {
+                    throw nonPrintable((char) b, pos - off);
+                }
+                cbuf[pos++] = (char) b;
+                position++;
+            } else {
+                final int codePoint = decodeSequence(b);
+                if (codePoint > 0xFFFF) {
+                    // supplementary characters are not printable in YAML 1.1
+                    char high = (char) ((codePoint >>> 10)
+                            + (Character.MIN_HIGH_SURROGATE - (0x10000 >>> 10)));
+                    if (check) {
+                        throw nonPrintable(high, pos - off);
+                    }
+                    char low = (char) ((codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE);
+                    cbuf[pos++] = high;
+                    if (pos < end) {
+                        cbuf[pos++] = low;
+                    } else {
+                        pendingLowSurrogate = low;
+                    }
+                } else {
+                    final char ch = (char) codePoint;
+                    if (check && !StreamReader.isPrintable(ch)) {
+                        throw nonPrintable(ch, pos - off);
+                    }
+                    cbuf[pos++] = ch;
+                }
+            }
+        }
+        return pos - off;
+    }
+
+    /**
+     * Decode a multi-byte sequence starting at the current position.
+     * 
+     * @return the Unicode code point
+     */
+    private int decodeSequence(int b) throws IOException {
+        int size;
+        int codePoint;
+        int min;
+        int max = 0xBF;
+        if (b >= 0xC2 && b <= 0xDF) {
+            size = 2;
+            codePoint = b & 0x1F;
+            min = 0x80;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            size = 3;
+            codePoint = b & 0x0F;
+            min = b == 0xE0 ? 0xA0 : 0x80;
+            if (b == 0xED) {
+                max = 0x9F;// no surrogates
+            }
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            size = 4;
+            codePoint = b & 0x07;
+            min = b == 0xF0 ? 0x90 : 0x80;
+            if (b == 0xF4) {
+                max = 0x8F;
+            }
+        } else {
+            throw new MalformedInputException(1);
+        }
+        if (limit - position < size && !fill(size)) {
+            throw new MalformedInputException(limit - position);
+        }
+        for (int i = 1; i < size; i++) {
+            int next = bytes[position + i] & 0xFF;
+            if (next < min || next > max) {
+                throw new MalformedInputException(i);
+            }
+            min = 0x80;
+            max = 0xBF;
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        position += size;
+        return codePoint;
+    }
+
+    /**
+     * Decode with CharsetDecoder
+     */
+    private int readDecoded(char[] cbuf, int off, int len) throws IOException {
+        if (flushed) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (true) {
+            byteBuffer.limit(limit);
+            byteBuffer.position(position);
+            CoderResult result = decoder.decode(byteBuffer, out, eof);
+            position = byteBuffer.position();
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (out.position() > off || result.isOverflow()) {
+                break;
+            }
+            if (eof) {
+                decoder.flush(out);
+                flushed = true;
+                break;
+            }
+            fill(limit - position + 1);
+        }
+        return out.position() - off;
+    }
+
+    /**
+     * Read from the stream until at least the given number of bytes is not
+     * decoded yet or the end of the stream is reached.
+     * 
+     * @return <code>true</code> when enough bytes are available
+     */
+    private boolean fill(int size) throws IOException {
+        if (limit - position >= size) {
+            return true;
+        }
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (!eof && limit < size) {
+            if (source != null) {
+                int n = Math.min(source.remaining(), bytes.length - limit);
+                source.get(bytes, limit, n);
+                limit += n;
+                eof = !source.hasRemaining();
+                continue;
+            }
+            int n = in.read(bytes, limit, bytes.length - limit);
+            if (n < 0) {
+                eof = true;
+            } else {
+                limit += n;
+            }
+        }
+        return limit - position >= size;
+    }
+
+    private void checkPrintable(char[] cbuf, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!StreamReader.isPrintable(cbuf[i])) {
+                throw nonPrintable(cbuf[i], i - begin);
+            }
+        }
+    }
+
+    private ReaderException nonPrintable(char ch, int offset) {
+        return new ReaderException(name, count + offset, ch, "special characters are not allowed");
     }
 }
\ No newline at end of file
@@ -18,15 +18,16 @@ package org.yaml.snakeyaml.scanner;
 import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
+import org.yaml.snakeyaml.LoaderOptions.MarkMode;
 import org.yaml.snakeyaml.error.Mark;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.reader.DirectCharSequence;
 import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.tokens.AliasToken;
 import org.yaml.snakeyaml.tokens.AnchorToken;
@@ -50,7 +51,7 @@ import org.yaml.snakeyaml.tokens.TagToken;
 import org.yaml.snakeyaml.tokens.TagTuple;
 import org.yaml.snakeyaml.tokens.Token;
 import org.yaml.snakeyaml.tokens.ValueToken;
-import org.yaml.snakeyaml.util.ArrayStack;
+import org.yaml.snakeyaml.util.IntStack;
 import org.yaml.snakeyaml.util.UriEncoder;
 
 /**
@@ -95,7 +96,7 @@ public final class ScannerImpl implements Scanner {
      * @see <a href="http://www.yaml.org/spec/current.html#id2517668">4.1.6.
      *      Escape Sequences</a>
      */
-    public final static Map<Character, String> ESCAPE_REPLACEMENTS = new HashMap<Character, String>();
+    public final static Map<Character, String> ESCAPE_REPLACEMENTS;
 
     /**
      * A mapping from a character to a number of bytes to read-ahead for that
@@ -111,49 +112,98 @@ public final class ScannerImpl implements Scanner {
      * @see <a href="http://yaml.org/spec/1.1/current.html#id872840">5.6. Escape
      *      Sequences</a>
      */
-    public final static Map<Character, Integer> ESCAPE_CODES = new HashMap<Character, Integer>();
+    public final static Map<Character, Integer> ESCAPE_CODES;
 
+    // The maps are read-only, the scanner uses the tables made from them
     static {
+        Map<Character, String> replacements = new HashMap<Character, String>();
+        Map<Character, Integer> codes = new HashMap<Character, Integer>();
         // ASCII null
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('0'), "\0");
+        replacements.put(Character.valueOf('0'), "\0");
         // ASCII bell
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('a'), "\u0007");
+        replacements.put(Character.valueOf('a'), "\u0007");
         // ASCII backspace
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('b'), "\u0008");
+        replacements.put(Character.valueOf('b'), "\u0008");
         // ASCII horizontal tab
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('t'), "\u0009");
+        replacements.put(Character.valueOf('t'), "\u0009");
         // ASCII newline (line feed; &#92;n maps to 0x0A)
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('n'), "\n");
+        replacements.put(Character.valueOf('n'), "\n");
         // ASCII vertical tab
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('v'), "\u000B");
+        replacements.put(Character.valueOf('v'), "\u000B");
         // ASCII form-feed
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('f'), "\u000C");
+        replacements.put(Character.valueOf('f'), "\u000C");
         // carriage-return (&#92;r maps to 0x0D)
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('r'), "\r");
+        replacements.put(Character.valueOf('r'), "\r");
         // ASCII escape character (Esc)
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('e'), "\u001B");
+        replacements.put(Character.valueOf('e'), "\u001B");
         // ASCII space
-        ESCAPE_REPLACEMENTS.put(Character.valueOf(' '), "\u0020");
+        replacements.put(Character.valueOf(' '), "\u0020");
         // ASCII double-quote
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('"'), "\"");
+        replacements.put(Character.valueOf('"'), "\"");
         // ASCII backslash
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('\\'), "\\");
+        replacements.put(Character.valueOf('\\'), "\\");
         // Unicode next line
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('N'), "\u0085");
+        replacements.put(Character.valueOf('N'), "\u0085");
         // Unicode non-breaking-space
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('_'), "\u00A0");
+        replacements.put(Character.valueOf('_'), "\u00A0");
         // Unicode line-separator
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('L'), "\u2028");
+        replacements.put(Character.valueOf('L'), "\u2028");
         // Unicode paragraph separator
-        ESCAPE_REPLACEMENTS.put(Character.valueOf('P'), "\u2029");
+        replacements.put(Character.valueOf('P'), "\u2029");
 
         // 8-bit Unicode
-        ESCAPE_CODES.put(Character.valueOf('x'), 2);
+        codes.put(Character.valueOf('x'), 2);
         // 16-bit Unicode
-        ESCAPE_CODES.put(Character.valueOf('u'), 4);
+        codes.put(Character.valueOf('u'), 4);
         // 32-bit Unicode (Supplementary characters are supported)
-        ESCAPE_CODES.put(Character.valueOf('U'), 8);
+        codes.put(Character.valueOf('U'), 8);
+        ESCAPE_REPLACEMENTS = Collections.unmodifiableMap(replacements);
+        ESCAPE_CODES = Collections.unmodifiableMap(codes);
+    }
+
+    // The kinds of the ASCII characters for scanPlainLength(): a blank or a
+    // line break ends a plain scalar, ':' ends it when it is followed by a
+    // blank, a flow indicator ends it in the flow context.
+    private static final byte PLAIN_BREAK = 1;
+    private static final byte PLAIN_COLON = 2;
+    private static final byte PLAIN_FLOW_INDICATOR = 3;
+    private static final byte[] PLAIN_KINDS = new byte[128];
+    // The short runs of spaces between the words of a plain scalar
+    private static final String[] SPACES = new String[16];
+    // The ASCII characters which end a run of ordinary characters in a
+    // quoted scalar and in a line of a block scalar (see scanRunLength())
+    private static final boolean[] QUOTED_STOPS = new boolean[128];
+    private static final boolean[] LINE_STOPS = new boolean[128];
+    // ESCAPE_REPLACEMENTS and ESCAPE_CODES indexed by the escape character
+    // (all the escape characters are ASCII)
+    private static final String[] ESCAPE_REPLACEMENT_TABLE = new String[128];
+    private static final int[] ESCAPE_CODE_TABLE = new int[128];
+    static {
+        SPACES[0] = "";
+        for (int i = 1; i < SPACES.length; i++) {
+            SPACES[i] = SPACES[i - 1] + ' ';
+        }
+        for (char ch : "\0 \t\r\n".toCharArray()) {
+            PLAIN_KINDS[ch] = PLAIN_BREAK;
+        }
+        PLAIN_KINDS[':'] = PLAIN_COLON;
+        for (char ch : ",?[]{}".toCharArray()) {
+            PLAIN_KINDS[ch] = PLAIN_FLOW_INDICATOR;
+        }
+        for (char ch : "\0 \t\r\n'\"\\".toCharArray()) {
+            QUOTED_STOPS[ch] = true;
+        }
+        for (char ch : "\0\r\n".toCharArray()) {
+            LINE_STOPS[ch] = true;
+        }
+        for (Map.Entry<Character, String> entry : ESCAPE_REPLACEMENTS.entrySet()) {
+            ESCAPE_REPLACEMENT_TABLE[entry.getKey().charValue()] = entry.getValue();
+        }
+        for (Map.Entry<Character, Integer> entry : ESCAPE_CODES.entrySet()) {
+            ESCAPE_CODE_TABLE[entry.getKey().charValue()] = entry.getValue().intValue();
+        }
     }
+
     private final StreamReader reader;
     // Had we reached the end of the stream?
     private boolean done = false;
@@ -162,8 +212,8 @@ public final class ScannerImpl implements Scanner {
     // context.
     private int flowLevel = 0;
 
-    // List of processed tokens that are not yet emitted.
-    private List<Token> tokens;
+    // Queue of processed tokens that are not yet emitted.
+    private TokenQueue tokens;
 
     // Number of tokens that were emitted through the `get_token` method.
     private int tokensTaken = 0;
@@ -172,7 +222,7 @@ public final class ScannerImpl implements Scanner {
     private int indent = -1;
 
     // Past indentation levels.
-    private ArrayStack<Integer> indents;
+    private IntStack indents;
 
     // Variables related to simple keys treatment. See PyYAML.
 
@@ -201,23 +251,153 @@ public final class ScannerImpl implements Scanner {
     private boolean allowSimpleKey = true;
 
     /*
-     * Keep track of possible simple keys. This is a dictionary. The key is
+     * Keep track of possible simple keys. This is an array indexed by
      * `flow_level`; there can be no more that one possible simple key for each
      * level. The value is a SimpleKey record: (token_number, required, index,
      * line, column, mark) A simple key may start with ALIAS, ANCHOR, TAG,
      * SCALAR(flow), '[', or '{' tokens.
      */
-    private Map<Integer, SimpleKey> possibleSimpleKeys;
+    private SimpleKey[] possibleSimpleKeys;
+
+    // Number of the possible simple keys in the array.
+    private int simpleKeyCount = 0;
+
+    // The lowest flow level with a possible simple key. Keys are saved at the
+    // current level and the deeper levels are removed when the flow
+    // collection ends, so this key has the smallest token number and index.
+    private int firstSimpleKeyLevel = 0;
+
+    // All the possible simple keys are known to be on this line (-1 if
+    // unknown). It lets stalePossibleSimpleKeys() skip the loop.
+    private int simpleKeysLine = -1;
+
+    // The Strings of the repeated mapping keys (null when it is not used)
+    private SymbolTable symbolTable;
+
+    // The block scalars longer than this are kept off the heap
+    private int largeScalarLimit = Integer.MAX_VALUE;
+
+    // The structure of the collection which is skipped (see startSkipping()):
+    // its end is the first indentation below skipIndents or the flow level
+    // below skipFlowLevel (-1 when it is not used)
+    private boolean skipping = false;
+    private boolean skipIndentless;
+    private int skipIndents;
+    private int skipFlowLevel;
+    private MarkMode skippedMarkMode;
+
+    // The long token which is scanned now: the style of the scalar ('\'',
+    // '"', '|', '>', ' ' for plain or '[' for plain in the flow context), '#'
+    // for a comment or '\0' for none,
+    // and the column below which a line ends the scalar. When the fed input
+    // is exhausted they tell what the scan waits for (see FeedParser).
+    private char scanStyle = '\0';
+    private int scanIndent = 0;
 
     public ScannerImpl(StreamReader reader) {
         this.reader = reader;
-        this.tokens = new ArrayList<Token>(100);
-        this.indents = new ArrayStack<Integer>(10);
-        // The order in possibleSimpleKeys is kept for nextPossibleSimpleKey()
-        this.possibleSimpleKeys = new LinkedHashMap<Integer, SimpleKey>();
+        this.tokens = new TokenQueue(128);
+        this.indents = new IntStack(10);
+        this.possibleSimpleKeys = new SimpleKey[16];
         fetchStreamStart();// Add the STREAM-START token.
     }
 
+    /**
+     * Share the Strings of the mapping keys with the given table.
+     * 
+     * @param symbolTable
+     *            the table or null not to use it
+     */
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Keep the content of the block scalars longer than the limit in a
+     * DirectCharSequence instead of a String. The content is moved off the
+     * heap in parts of about the limit while the scalar is scanned.
+     * 
+     * @param largeScalarLimit
+     *            the number of characters (Integer.MAX_VALUE not to use it)
+     */
+    public void setLargeScalarLimit(int largeScalarLimit) {
+        if (largeScalarLimit < 1) {
+            throw new IllegalArgumentException("The limit must be positive: "
+                    + largeScalarLimit);
+        }
+        this.largeScalarLimit = largeScalarLimit;
+    }
+
+    /**
+     * Scan the rest of the collection which starts with the next token only
+     * for its structure: the scalars get no values and the tokens get
+     * <code>Mark.UNKNOWN</code>. The mode ends by itself with the collection,
+     * the tokens after it are complete. It is used by
+     * <code>ParserImpl.skipCurrentNode()</code>.
+     * 
+     * @param flow
+     *            true for a flow collection (the next token is '[' or '{')
+     * @param indentless
+     *            true for a block sequence which is not indented (the next
+     *            token is its first '-')
+     */
+    public void startSkipping(boolean flow, boolean indentless) {
+        // The state of the scanner is after the tokens in the queue, the
+        // collection may have ended there.
+        int depth = this.indents.size();
+        int level = this.flowLevel;
+        for (int i = 1; i < tokens.size(); i++) {
+            switch (tokens.get(i).getTokenId()) {
+            case BlockMappingStart:
+            case BlockSequenceStart:
+                depth--;
+                break;
+            case BlockEnd:
+                depth++;
+                break;
+            case FlowMappingStart:
+            case FlowSequenceStart:
+                level--;
+                break;
+            case FlowMappingEnd:
+            case FlowSequenceEnd:
+                level++;
+                break;
+            default:
+                break;
+            }
+        }
+        boolean open;
+        if (flow) {
+            open = this.flowLevel >= level;
+        } else if (indentless) {
+            // the end of the sequence is found by the next line, only its
+            // first '-' may be scanned
+            open = tokens.size() == 1 && tokens.peek().getTokenId() == Token.ID.BlockEntry;
+        } else {
+            open = this.indents.size() >= depth;
+        }
+        if (open && !skipping && !tokens.isEmpty()) {
+            this.skipping = true;
+            this.skipIndentless = indentless;
+            this.skipIndents = flow ? -1 : depth;
+            this.skipFlowLevel = flow ? level : -1;
+            this.skippedMarkMode = reader.getMarkMode();
+            reader.setMarkMode(MarkMode.NONE);
+        }
+    }
+
+    /**
+     * End the skipping before the end of the collection (nothing is done when
+     * it has ended).
+     */
+    public void stopSkipping() {
+        if (skipping) {
+            skipping = false;
+            reader.setMarkMode(skippedMarkMode);
+        }
+    }
+
     /**
      * Check whether the next token is one of the given types.
      */
@@ -231,7 +411,7 @@ public final class ScannerImpl implements Scanner {
             }
             // since profiler puts this method on top (it is used a lot), we
             // should not use 'foreach' here because of the performance reasons
-            Token.ID first = this.tokens.get(0).getTokenId();
+            Token.ID first = this.tokens.peek().getTokenId();
             for (int i = 0; i < choices.length; i++) {
                 if (first == choices[i]) {
                     return true;
@@ -248,7 +428,7 @@ public final class ScannerImpl implements Scanner {
         while (needMoreTokens()) {
             fetchMoreTokens();
         }
-        return this.tokens.get(0);
+        return this.tokens.peek();
     }
 
     /**
@@ -257,11 +437,85 @@ public final class ScannerImpl implements Scanner {
     public Token getToken() {
         if (!this.tokens.isEmpty()) {
             this.tokensTaken++;
-            return this.tokens.remove(0);
+            return this.tokens.poll();
         }
         return null;
     }
 
+    /**
+     * The state of the scanner to return to. The state of the StreamReader is
+     * kept separately.
+     */
+    public static final class Checkpoint {
+        private final boolean done;
+        private final int flowLevel;
+        private final TokenQueue tokens;
+        private final int tokensTaken;
+        private final int indent;
+        private final IntStack indents;
+        private final boolean allowSimpleKey;
+        private final SimpleKey[] possibleSimpleKeys;
+        private final int simpleKeyCount;
+        private final int firstSimpleKeyLevel;
+        private final int simpleKeysLine;
+
+        private Checkpoint(ScannerImpl scanner) {
+            this.done = scanner.done;
+            this.flowLevel = scanner.flowLevel;
+            this.tokens = scanner.tokens.copy();
+            this.tokensTaken = scanner.tokensTaken;
+            this.indent = scanner.indent;
+            this.indents = scanner.indents.copy();
+            this.allowSimpleKey = scanner.allowSimpleKey;
+            this.possibleSimpleKeys = scanner.possibleSimpleKeys.clone();
+            this.simpleKeyCount = scanner.simpleKeyCount;
+            this.firstSimpleKeyLevel = scanner.firstSimpleKeyLevel;
+            this.simpleKeysLine = scanner.simpleKeysLine;
+        }
+    }
+
+    /**
+     * The style of the scalar which was scanned when the input was exhausted:
+     * '\'', '"', '|', '>', ' ' for a plain scalar or '[' for a plain scalar in
+     * the flow context. It is '#' for a comment and '\0' when the input ended
+     * outside of a scalar or a comment.
+     */
+    public char getScanStyle() {
+        return scanStyle;
+    }
+
+    /**
+     * A line which starts (with a character other than space) below this
+     * column may end the scalar of getScanStyle()
+     */
+    public int getScanIndent() {
+        return scanIndent;
+    }
+
+    /**
+     * Save the current state (the tokens and the keys are immutable).
+     */
+    public Checkpoint checkpoint() {
+        return new Checkpoint(this);
+    }
+
+    /**
+     * Return to the given state. The checkpoint may be used only once.
+     */
+    public void rollback(Checkpoint checkpoint) {
+        this.done = checkpoint.done;
+        this.flowLevel = checkpoint.flowLevel;
+        this.tokens = checkpoint.tokens;
+        this.tokensTaken = checkpoint.tokensTaken;
+        this.indent = checkpoint.indent;
+        this.indents = checkpoint.indents;
+        this.allowSimpleKey = checkpoint.allowSimpleKey;
+        this.possibleSimpleKeys = checkpoint.possibleSimpleKeys;
+        this.simpleKeyCount = checkpoint.simpleKeyCount;
+        this.firstSimpleKeyLevel = checkpoint.firstSimpleKeyLevel;
+        this.simpleKeysLine = checkpoint.simpleKeysLine;
+    }
+
     // Private methods.
     /**
      * Returns true if more tokens should be scanned.
@@ -292,6 +546,13 @@ public final class ScannerImpl implements Scanner {
         // Compare the current indentation and column. It may add some tokens
         // and decrease the current indentation level.
         unwindIndent(reader.getColumn());
+        // The skipped sequence without indentation ends with the first line
+        // which does not start with '-'.
+        if (skipping && skipIndentless && this.flowLevel == 0
+                && this.indents.size() == skipIndents && reader.getColumn() == this.indent
+                && !(reader.peek() == '-' && Constant.NULL_BL_T_LINEBR.has(reader.peek(1)))) {
+            stopSkipping();
+        }
         // Peek the next character, to decide what the next group of tokens
         // will look like.
         char ch = reader.peek();
@@ -418,7 +679,7 @@ public final class ScannerImpl implements Scanner {
                 .format("found character '%s' that cannot start any token. (Do not use %s for indentation)",
                         chRepresentation, chRepresentation);
         throw new ScannerException("while scanning for the next token", null, text,
-                reader.getMark());
+                reader.getErrorMark());
     }
 
     // Simple keys treatment.
@@ -429,11 +690,11 @@ public final class ScannerImpl implements Scanner {
      */
     private int nextPossibleSimpleKey() {
         /*
-         * the implementation is not as in PyYAML. Because
-         * this.possibleSimpleKeys is ordered we can simply take the first key
+         * the implementation is not as in PyYAML. The key at the lowest flow
+         * level is the nearest one
          */
-        if (!this.possibleSimpleKeys.isEmpty()) {
-            return this.possibleSimpleKeys.values().iterator().next().getTokenNumber();
+        if (this.simpleKeyCount > 0) {
+            return this.possibleSimpleKeys[this.firstSimpleKeyLevel].getTokenNumber();
         }
         return -1;
     }
@@ -449,26 +710,36 @@ public final class ScannerImpl implements Scanner {
      * </pre>
      */
     private void stalePossibleSimpleKeys() {
-        if (!this.possibleSimpleKeys.isEmpty()) {
-            for (Iterator<SimpleKey> iterator = this.possibleSimpleKeys.values().iterator(); iterator
-                    .hasNext();) {
-                SimpleKey key = iterator.next();
-                if ((key.getLine() != reader.getLine())
-                        || (reader.getIndex() - key.getIndex() > 1024)) {
-                    // If the key is not on the same line as the current
-                    // position OR the difference in column between the token
-                    // start and the current position is more than the maximum
-                    // simple key length, then this cannot be a simple key.
-                    if (key.isRequired()) {
-                        // If the key was required, this implies an error
-                        // condition.
-                        throw new ScannerException("while scanning a simple key", key.getMark(),
-                                "could not find expected ':'", reader.getMark());
-                    }
-                    iterator.remove();
+        if (this.simpleKeyCount == 0) {
+            return;
+        }
+        // all the keys are on the current line and the first key is the
+        // longest one
+        SimpleKey first = this.possibleSimpleKeys[this.firstSimpleKeyLevel];
+        if (this.simpleKeysLine == reader.getLine()
+                && reader.getIndex() - first.getIndex() <= 1024) {
+            return;
+        }
+        int length = this.possibleSimpleKeys.length;
+        for (int level = this.firstSimpleKeyLevel; level < length; level++) {
+            SimpleKey key = this.possibleSimpleKeys[level];
+            if (key != null
+                    && ((key.getLine() != reader.getLine()) || (reader.getIndex()
+                            - key.getIndex() > 1024))) {
+                // If the key is not on the same line as the current
+                // position OR the difference in column between the token
+                // start and the current position is more than the maximum
+                // simple key length, then this cannot be a simple key.
+                if (key.isRequired()) {
+                    // If the key was required, this implies an error
+                    // condition.
+                    throw new ScannerException("while scanning a simple key", key.getMark(),
+                            "could not find expected ':'", reader.getErrorMark());
                 }
+                takePossibleSimpleKey(level);
             }
         }
+        this.simpleKeysLine = reader.getLine();
     }
 
     /**
@@ -501,7 +772,20 @@ public final class ScannerImpl implements Scanner {
             int tokenNumber = this.tokensTaken + this.tokens.size();
             SimpleKey key = new SimpleKey(tokenNumber, required, reader.getIndex(),
                     reader.getLine(), this.reader.getColumn(), this.reader.getMark());
-            this.possibleSimpleKeys.put(this.flowLevel, key);
+            if (this.flowLevel >= this.possibleSimpleKeys.length) {
+                SimpleKey[] keys = new SimpleKey[this.possibleSimpleKeys.length * 2];
+                System.arraycopy(this.possibleSimpleKeys, 0, keys, 0,
+                        this.possibleSimpleKeys.length);
+                this.possibleSimpleKeys = keys;
+            }
+            if (this.simpleKeyCount == 0) {
+                this.firstSimpleKeyLevel = this.flowLevel;
+                this.simpleKeysLine = key.getLine();
+            } else if (this.simpleKeysLine != key.getLine()) {
+                this.simpleKeysLine = -1;
+            }
+            this.possibleSimpleKeys[this.flowLevel] = key;
+            this.simpleKeyCount++;
         }
     }
 
@@ -509,11 +793,31 @@ public final class ScannerImpl implements Scanner {
      * Remove the saved possible key position at the current flow level.
      */
     private void removePossibleSimpleKey() {
-        SimpleKey key = possibleSimpleKeys.remove(flowLevel);
+        SimpleKey key = takePossibleSimpleKey(flowLevel);
         if (key != null && key.isRequired()) {
             throw new ScannerException("while scanning a simple key", key.getMark(),
-                    "could not find expected ':'", reader.getMark());
+                    "could not find expected ':'", reader.getErrorMark());
+        }
+    }
+
+    /**
+     * Remove and return the possible key at the given flow level.
+     */
+    private SimpleKey takePossibleSimpleKey(int level) {
+        if (level >= this.possibleSimpleKeys.length) {
+            return null;
+        }
+        SimpleKey key = this.possibleSimpleKeys[level];
+        if (key != null) {
+            this.possibleSimpleKeys[level] = null;
+            this.simpleKeyCount--;
+            if (level == this.firstSimpleKeyLevel && this.simpleKeyCount > 0) {
+                do {
+                    this.firstSimpleKeyLevel++;
+                } while (this.possibleSimpleKeys[this.firstSimpleKeyLevel] == null);
+            }
         }
+        return key;
     }
 
     // Indentation functions.
@@ -550,6 +854,9 @@ public final class ScannerImpl implements Scanner {
             Mark mark = reader.getMark();
             this.indent = this.indents.pop();
             this.tokens.add(new BlockEndToken(mark, mark));
+            if (skipping && this.indents.size() < skipIndents) {
+                stopSkipping();
+            }
         }
     }
 
@@ -587,7 +894,9 @@ public final class ScannerImpl implements Scanner {
         // Reset simple keys.
         removePossibleSimpleKey();
         this.allowSimpleKey = false;
-        this.possibleSimpleKeys.clear();
+        for (int level = 0; level < this.possibleSimpleKeys.length; level++) {
+            takePossibleSimpleKey(level);
+        }
 
         // Read the token.
         Mark mark = reader.getMark();
@@ -742,6 +1051,9 @@ public final class ScannerImpl implements Scanner {
             token = new FlowSequenceEndToken(startMark, endMark);
         }
         this.tokens.add(token);
+        if (skipping && this.flowLevel < skipFlowLevel) {
+            stopSkipping();
+        }
     }
 
     /**
@@ -776,7 +1088,7 @@ public final class ScannerImpl implements Scanner {
             // Are we allowed to start a new entry?
             if (!this.allowSimpleKey) {
                 throw new ScannerException(null, null, "sequence entries are not allowed here",
-                        reader.getMark());
+                        reader.getErrorMark());
             }
 
             // We may need to add BLOCK-SEQUENCE-START.
@@ -813,7 +1125,7 @@ public final class ScannerImpl implements Scanner {
             // Are we allowed to start a key (not necessary a simple)?
             if (!this.allowSimpleKey) {
                 throw new ScannerException(null, null, "mapping keys are not allowed here",
-                        reader.getMark());
+                        reader.getErrorMark());
             }
             // We may need to add BLOCK-MAPPING-START.
             if (addIndent(this.reader.getColumn())) {
@@ -842,7 +1154,7 @@ public final class ScannerImpl implements Scanner {
      */
     private void fetchValue() {
         // Do we determine a simple key?
-        SimpleKey key = this.possibleSimpleKeys.remove(this.flowLevel);
+        SimpleKey key = takePossibleSimpleKey(this.flowLevel);
         if (key != null) {
             // Add KEY.
             this.tokens.add(key.getTokenNumber() - this.tokensTaken, new KeyToken(key.getMark(),
@@ -869,7 +1181,7 @@ public final class ScannerImpl implements Scanner {
                 // start a simple key.
                 if (!this.allowSimpleKey) {
                     throw new ScannerException(null, null, "mapping values are not allowed here",
-                            reader.getMark());
+                            reader.getErrorMark());
                 }
             }
 
@@ -1060,6 +1372,36 @@ public final class ScannerImpl implements Scanner {
         return reader.getColumn() == 0;
     }
 
+    /**
+     * Returns true if the next three characters are the given one ("---" or
+     * "..."). They are compared in the window of the reader without creating
+     * a String.
+     */
+    private boolean checkTriple(char ch) {
+        if (reader.available(3) < 3) {
+            return false;
+        }
+        char[] window = reader.getWindow();
+        int pointer = reader.getPointer();
+        return window[pointer] == ch && window[pointer + 1] == ch && window[pointer + 2] == ch;
+    }
+
+    /**
+     * Append the next length characters to the builder and move forward. The
+     * characters are copied from the window of the reader without creating a
+     * String.
+     */
+    private void appendForward(StringBuilder builder, int length) {
+        if (skipping) {
+            // the value is not needed
+            reader.forward(length);
+            return;
+        }
+        int available = Math.min(length, reader.available(length));
+        builder.append(reader.getWindow(), reader.getPointer(), available);
+        reader.forward(available);
+    }
+
     /**
      * Returns true if the next thing on the reader is a document-start ("---").
      * A document-start is always followed immediately by a new line.
@@ -1067,7 +1409,7 @@ public final class ScannerImpl implements Scanner {
     private boolean checkDocumentStart() {
         // DOCUMENT-START: ^ '---' (' '|'\n')
         if (reader.getColumn() == 0) {
-            if ("---".equals(reader.prefix(3)) && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
+            if (checkTriple('-') && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
                 return true;
             }
         }
@@ -1081,7 +1423,7 @@ public final class ScannerImpl implements Scanner {
     private boolean checkDocumentEnd() {
         // DOCUMENT-END: ^ '...' (' '|'\n')
         if (reader.getColumn() == 0) {
-            if ("...".equals(reader.prefix(3)) && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
+            if (checkTriple('.') && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
                 return true;
             }
         }
@@ -1195,6 +1537,7 @@ public final class ScannerImpl implements Scanner {
             // comments are from a # to the next new-line. We then forward
             // past the comment.
             if (reader.peek() == '#') {
+                scanStyle = '#';
                 ff = 0;
                 while (Constant.NULL_OR_LINEBR.hasNo(reader.peek(ff))) {
                     ff++;
@@ -1202,6 +1545,7 @@ public final class ScannerImpl implements Scanner {
                 if (ff > 0) {
                     reader.forward(ff);
                 }
+                scanStyle = '\0';
             }
             // If we scanned a line break, then (depending on flow level),
             // simple keys may be allowed.
@@ -1266,14 +1610,14 @@ public final class ScannerImpl implements Scanner {
         if (length == 0) {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected alphabetic or numeric character, but found " + ch + "(" + ((int) ch)
-                            + ")", reader.getMark());
+                            + ")", reader.getErrorMark());
         }
         String value = reader.prefixForward(length);
         ch = reader.peek();
         if (Constant.NULL_BL_LINEBR.hasNo(ch)) {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected alphabetic or numeric character, but found " + ch + "(" + ((int) ch)
-                            + ")", reader.getMark());
+                            + ")", reader.getErrorMark());
         }
         return value;
     }
@@ -1287,14 +1631,14 @@ public final class ScannerImpl implements Scanner {
         if (reader.peek() != '.') {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected a digit or '.', but found " + reader.peek() + "("
-                            + ((int) reader.peek()) + ")", reader.getMark());
+                            + ((int) reader.peek()) + ")", reader.getErrorMark());
         }
         reader.forward();
         Integer minor = scanYamlDirectiveNumber(startMark);
         if (Constant.NULL_BL_LINEBR.hasNo(reader.peek())) {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected a digit or ' ', but found " + reader.peek() + "("
-                            + ((int) reader.peek()) + ")", reader.getMark());
+                            + ((int) reader.peek()) + ")", reader.getErrorMark());
         }
         List<Integer> result = new ArrayList<Integer>(2);
         result.add(major);
@@ -1314,7 +1658,7 @@ public final class ScannerImpl implements Scanner {
         char ch = reader.peek();
         if (!Character.isDigit(ch)) {
             throw new ScannerException("while scanning a directive", startMark,
-                    "expected a digit, but found " + ch + "(" + ((int) ch) + ")", reader.getMark());
+                    "expected a digit, but found " + ch + "(" + ((int) ch) + ")", reader.getErrorMark());
         }
         int length = 0;
         while (Character.isDigit(reader.peek(length))) {
@@ -1365,7 +1709,7 @@ public final class ScannerImpl implements Scanner {
         char ch = reader.peek();
         if (ch != ' ') {
             throw new ScannerException("while scanning a directive", startMark,
-                    "expected ' ', but found " + reader.peek() + "(" + ch + ")", reader.getMark());
+                    "expected ' ', but found " + reader.peek() + "(" + ch + ")", reader.getErrorMark());
         }
         return value;
     }
@@ -1381,7 +1725,7 @@ public final class ScannerImpl implements Scanner {
         if (Constant.NULL_BL_LINEBR.hasNo(reader.peek())) {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected ' ', but found " + reader.peek() + "(" + ((int) reader.peek()) + ")",
-                    reader.getMark());
+                    reader.getErrorMark());
         }
         return value;
     }
@@ -1407,7 +1751,7 @@ public final class ScannerImpl implements Scanner {
         if (lineBreak.length() == 0 && ch != '\0') {
             throw new ScannerException("while scanning a directive", startMark,
                     "expected a comment or a line break, but found " + ch + "(" + ((int) ch) + ")",
-                    reader.getMark());
+                    reader.getErrorMark());
         }
         return lineBreak;
     }
@@ -1438,14 +1782,14 @@ public final class ScannerImpl implements Scanner {
         if (length == 0) {
             throw new ScannerException("while scanning an " + name, startMark,
                     "expected alphabetic or numeric character, but found " + ch,
-                    reader.getMark());
+                    reader.getErrorMark());
         }
         String value = reader.prefixForward(length);
         ch = reader.peek();
         if (Constant.NULL_BL_T_LINEBR.hasNo(ch, "?:,]}%@`")) {
             throw new ScannerException("while scanning an " + name, startMark,
                     "expected alphabetic or numeric character, but found " + ch + "("
-                            + ((int) reader.peek()) + ")", reader.getMark());
+                            + ((int) reader.peek()) + ")", reader.getErrorMark());
         }
         Mark endMark = reader.getMark();
         Token tok;
@@ -1509,7 +1853,7 @@ public final class ScannerImpl implements Scanner {
                 // URI and the closing &gt;, then an error has occurred.
                 throw new ScannerException("while scanning a tag", startMark,
                         "expected '>', but found '" + reader.peek() + "' (" + ((int) reader.peek())
-                                + ")", reader.getMark());
+                                + ")", reader.getErrorMark());
             }
             reader.forward();
         } else if (Constant.NULL_BL_T_LINEBR.has(ch)) {
@@ -1548,7 +1892,7 @@ public final class ScannerImpl implements Scanner {
         // if it is not, raise the error.
         if (Constant.NULL_BL_LINEBR.hasNo(ch)) {
             throw new ScannerException("while scanning a tag", startMark,
-                    "expected ' ', but found '" + ch + "' (" + ((int) ch) + ")", reader.getMark());
+                    "expected ' ', but found '" + ch + "' (" + ((int) ch) + ")", reader.getErrorMark());
         }
         TagTuple value = new TagTuple(handle, suffix);
         Mark endMark = reader.getMark();
@@ -1572,51 +1916,63 @@ public final class ScannerImpl implements Scanner {
         Chomping chompi = scanBlockScalarIndicators(startMark);
         int increment = chompi.getIncrement();
         scanBlockScalarIgnoredLine(startMark);
+        // the first line with content sets the indentation (or ends the
+        // scalar)
+        scanStyle = style;
+        scanIndent = Integer.MAX_VALUE;
 
         // Determine the indentation level and go to the first non-empty line.
         int minIndent = this.indent + 1;
         if (minIndent < 1) {
             minIndent = 1;
         }
-        String breaks = null;
-        int maxIndent = 0;
-        int indent = 0;
-        Mark endMark;
+        // The indentation spaces of the next line are consumed only when the
+        // line belongs to the scalar, the end mark is before them.
+        StringBuilder breaks = new StringBuilder();
+        int indent;
+        int spaces;
         if (increment == -1) {
-            Object[] brme = scanBlockScalarIndentation();
-            breaks = (String) brme[0];
-            maxIndent = ((Integer) brme[1]).intValue();
-            endMark = (Mark) brme[2];
+            int maxIndent = scanBlockScalarIndentation(breaks);
             indent = Math.max(minIndent, maxIndent);
+            spaces = scanBlockScalarSpaces(indent);
         } else {
             indent = minIndent + increment - 1;
-            Object[] brme = scanBlockScalarBreaks(indent);
-            breaks = (String) brme[0];
-            endMark = (Mark) brme[1];
+            spaces = scanBlockScalarBreaks(indent, breaks);
         }
+        scanIndent = indent;
 
         String lineBreak = "";
+        // the content moved off the heap (only for a large scalar)
+        DirectCharSequence large = null;
 
         // Scan the inner part of the block scalar.
-        while (this.reader.getColumn() == indent && reader.peek() != '\0') {
-            chunks.append(breaks);
+        while (this.reader.getColumn() + spaces == indent && reader.peek(spaces) != '\0') {
+            reader.forward(spaces);
+            if (!skipping) {
+                chunks.append(breaks);
+            }
             boolean leadingNonSpace = " \t".indexOf(reader.peek()) == -1;
-            int length = 0;
-            while (Constant.NULL_OR_LINEBR.hasNo(reader.peek(length))) {
-                length++;
+            // copy the whole line at once
+            appendForward(chunks, scanRunLength(LINE_STOPS));
+            if (chunks.length() > largeScalarLimit) {
+                if (large == null) {
+                    large = new DirectCharSequence();
+                }
+                large.append(chunks);
+                chunks.setLength(0);
             }
-            chunks.append(reader.prefixForward(length));
             lineBreak = scanLineBreak();
-            Object[] brme = scanBlockScalarBreaks(indent);
-            breaks = (String) brme[0];
-            endMark = (Mark) brme[1];
-            if (this.reader.getColumn() == indent && reader.peek() != '\0') {
+            breaks.setLength(0);
+            spaces = scanBlockScalarBreaks(indent, breaks);
+            if (this.reader.getColumn() + spaces == indent && reader.peek(spaces) != '\0') {
 
                 // Unfortunately, folding rules are ambiguous.
                 //
                 // This is the folding according to the specification:
-                if (folded && "\n".equals(lineBreak) && leadingNonSpace
-                        && " \t".indexOf(reader.peek()) == -1) {
+                if (skipping) {
+                    // the value is not needed
+                } else if (folded && "\n".equals(lineBreak) && leadingNonSpace
+                        && " \t".indexOf(reader.peek(spaces)) == -1) {
                     if (breaks.length() == 0) {
                         chunks.append(" ");
                     }
@@ -1630,13 +1986,21 @@ public final class ScannerImpl implements Scanner {
             }
         }
         // Chomp the tail.
-        if (chompi.chompTailIsNotFalse()) {
+        if (!skipping && chompi.chompTailIsNotFalse()) {
             chunks.append(lineBreak);
         }
-        if (chompi.chompTailIsTrue()) {
+        if (!skipping && chompi.chompTailIsTrue()) {
             chunks.append(breaks);
         }
+        Mark endMark = reader.getMark();
+        reader.forward(spaces);
+        scanStyle = '\0';
         // We are done.
+        if (skipping) {
+            return new ScalarToken("", false, startMark, endMark, style);
+        } else if (large != null) {
+            return new ScalarToken(large.append(chunks), false, startMark, endMark, style);
+        }
         return new ScalarToken(chunks.toString(), false, startMark, endMark, style);
     }
 
@@ -1673,7 +2037,7 @@ public final class ScannerImpl implements Scanner {
                 if (increment == 0) {
                     throw new ScannerException("while scanning a block scalar", startMark,
                             "expected indentation indicator in the range 1-9, but found 0",
-                            reader.getMark());
+                            reader.getErrorMark());
                 }
                 reader.forward();
             }
@@ -1682,7 +2046,7 @@ public final class ScannerImpl implements Scanner {
             if (increment == 0) {
                 throw new ScannerException("while scanning a block scalar", startMark,
                         "expected indentation indicator in the range 1-9, but found 0",
-                        reader.getMark());
+                        reader.getErrorMark());
             }
             reader.forward();
             ch = reader.peek();
@@ -1699,7 +2063,7 @@ public final class ScannerImpl implements Scanner {
         if (Constant.NULL_BL_LINEBR.hasNo(ch)) {
             throw new ScannerException("while scanning a block scalar", startMark,
                     "expected chomping or indentation indicators, but found " + ch,
-                    reader.getMark());
+                    reader.getErrorMark());
         }
         return new Chomping(chomping, increment);
     }
@@ -1734,7 +2098,7 @@ public final class ScannerImpl implements Scanner {
         String lineBreak = scanLineBreak();
         if (lineBreak.length() == 0 && ch != '\0') {
             throw new ScannerException("while scanning a block scalar", startMark,
-                    "expected a comment or a line break, but found " + ch, reader.getMark());
+                    "expected a comment or a line break, but found " + ch, reader.getErrorMark());
         }
         return lineBreak;
     }
@@ -1742,73 +2106,80 @@ public final class ScannerImpl implements Scanner {
     /**
      * Scans for the indentation of a block scalar implicitly. This mechanism is
      * used only if the block did not explicitly state an indentation to be
-     * used.
+     * used. The leading spaces of the first non-empty line are not consumed.
      * 
      * @see <a href="http://www.yaml.org/spec/1.1/#id927035"></a>
+     * @param breaks
+     *            the line breaks of the empty lines are appended here (not
+     *            when skipping)
+     * @return the maximum number of leading spaces of the scanned lines
      */
-    private Object[] scanBlockScalarIndentation() {
+    private int scanBlockScalarIndentation(StringBuilder breaks) {
         // See the specification for details.
-        StringBuilder chunks = new StringBuilder();
         int maxIndent = 0;
-        Mark endMark = reader.getMark();
         // Look ahead some number of lines until the first non-blank character
         // occurs; the determined indentation will be the maximum number of
         // leading spaces on any of these lines.
-        while (Constant.LINEBR.has(reader.peek(), " \r")) {
-            if (reader.peek() != ' ') {
-                // If the character isn't a space, it must be some kind of
-                // line-break; scan the line break and track it.
-                chunks.append(scanLineBreak());
-                endMark = reader.getMark();
-            } else {
-                // If the character is a space, move forward to the next
-                // character; if we surpass our previous maximum for indent
-                // level, update that too.
-                reader.forward();
-                if (this.reader.getColumn() > maxIndent) {
-                    maxIndent = reader.getColumn();
-                }
+        while (true) {
+            int ff = 0;
+            while (reader.peek(ff) == ' ') {
+                ff++;
+            }
+            if (ff > 0 && reader.getColumn() + ff > maxIndent) {
+                maxIndent = reader.getColumn() + ff;
+            }
+            if (Constant.FULL_LINEBR.hasNo(reader.peek(ff))) {
+                return maxIndent;
+            }
+            // The spaces are followed by some kind of line-break; scan the
+            // line break and track it.
+            reader.forward(ff);
+            String lineBreak = scanLineBreak();
+            if (!skipping) {
+                breaks.append(lineBreak);
             }
         }
-        // Pass several results back together.
-        return new Object[] { chunks.toString(), maxIndent, endMark };
     }
 
-    private Object[] scanBlockScalarBreaks(int indent) {
+    /**
+     * Consume the empty lines up to the next line which has content or fewer
+     * leading spaces than the indentation.
+     * 
+     * @param indent
+     *            the indentation of the block scalar
+     * @param breaks
+     *            the line breaks are appended here (not when skipping)
+     * @return the number of the leading spaces (up to indent) of the next line
+     *         which are not consumed
+     */
+    private int scanBlockScalarBreaks(int indent, StringBuilder breaks) {
         // See the specification for details.
-        StringBuilder chunks = new StringBuilder();
-        Mark endMark = reader.getMark();
+        while (true) {
+            // Scan for up to the expected indentation-level of spaces, they
+            // are consumed only when a line break follows.
+            int ff = scanBlockScalarSpaces(indent);
+            if (Constant.FULL_LINEBR.hasNo(reader.peek(ff))) {
+                return ff;
+            }
+            reader.forward(ff);
+            String lineBreak = scanLineBreak();
+            if (!skipping) {
+                breaks.append(lineBreak);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the spaces which follow (up to the indentation)
+     */
+    private int scanBlockScalarSpaces(int indent) {
         int ff = 0;
         int col = this.reader.getColumn();
-        // Scan for up to the expected indentation-level of spaces, then move
-        // forward past that amount.
         while (col < indent && reader.peek(ff) == ' ') {
             ff++;
             col++;
         }
-        if (ff > 0) {
-            reader.forward(ff);
-        }
-        // Consume one or more line breaks followed by any amount of spaces,
-        // until we find something that isn't a line-break.
-        String lineBreak = null;
-        while ((lineBreak = scanLineBreak()).length() != 0) {
-            chunks.append(lineBreak);
-            endMark = reader.getMark();
-            // Scan past up to (indent) spaces on the next line, then forward
-            // past them.
-            ff = 0;
-            col = this.reader.getColumn();
-            while (col < indent && reader.peek(ff) == ' ') {
-                ff++;
-                col++;
-            }
-            if (ff > 0) {
-                reader.forward(ff);
-            }
-        }
-        // Return both the assembled intervening string and the end-mark.
-        return new Object[] { chunks.toString(), endMark };
+        return ff;
     }
 
     /**
@@ -1839,32 +2210,35 @@ public final class ScannerImpl implements Scanner {
         StringBuilder chunks = new StringBuilder();
         Mark startMark = reader.getMark();
         char quote = reader.peek();
+        scanStyle = style;
         reader.forward();
-        chunks.append(scanFlowScalarNonSpaces(_double, startMark));
+        scanFlowScalarNonSpaces(_double, startMark, chunks);
         while (reader.peek() != quote) {
-            chunks.append(scanFlowScalarSpaces(startMark));
-            chunks.append(scanFlowScalarNonSpaces(_double, startMark));
+            scanFlowScalarSpaces(startMark, chunks);
+            scanFlowScalarNonSpaces(_double, startMark, chunks);
         }
         reader.forward();
+        scanStyle = '\0';
         Mark endMark = reader.getMark();
+        if (skipping) {
+            return new ScalarToken("", false, startMark, endMark, style);
+        }
         return new ScalarToken(chunks.toString(), false, startMark, endMark, style);
     }
 
     /**
-     * Scan some number of flow-scalar non-space characters.
+     * Scan some number of flow-scalar non-space characters and append them to
+     * the chunks.
      */
-    private String scanFlowScalarNonSpaces(boolean doubleQuoted, Mark startMark) {
+    private void scanFlowScalarNonSpaces(boolean doubleQuoted, Mark startMark,
+            StringBuilder chunks) {
         // See the specification for details.
-        StringBuilder chunks = new StringBuilder();
         while (true) {
             // Scan through any number of characters which are not: NUL, blank,
             // tabs, line breaks, single-quotes, double-quotes, or backslashes.
-            int length = 0;
-            while (Constant.NULL_BL_T_LINEBR.hasNo(reader.peek(length), "\'\"\\")) {
-                length++;
-            }
+            int length = scanRunLength(QUOTED_STOPS);
             if (length != 0) {
-                chunks.append(reader.prefixForward(length));
+                appendForward(chunks, length);
             }
             // Depending on our quoting-type, the characters ', " and \ have
             // differing meanings.
@@ -1878,84 +2252,107 @@ public final class ScannerImpl implements Scanner {
             } else if (doubleQuoted && ch == '\\') {
                 reader.forward();
                 ch = reader.peek();
-                if (ESCAPE_REPLACEMENTS.containsKey(Character.valueOf(ch))) {
+                String replacement = ch < 128 ? ESCAPE_REPLACEMENT_TABLE[ch] : null;
+                length = ch < 128 ? ESCAPE_CODE_TABLE[ch] : 0;
+                if (replacement != null) {
                     // The character is one of the single-replacement
                     // types; these are replaced with a literal character
                     // from the mapping.
-                    chunks.append(ESCAPE_REPLACEMENTS.get(Character.valueOf(ch)));
+                    chunks.append(replacement);
                     reader.forward();
-                } else if (ESCAPE_CODES.containsKey(Character.valueOf(ch))) {
+                } else if (length != 0) {
                     // The character is a multi-digit escape sequence, with
                     // length defined by the value in the ESCAPE_CODES map.
-                    length = ESCAPE_CODES.get(Character.valueOf(ch)).intValue();
                     reader.forward();
-                    String hex = reader.prefix(length);
-                    if (NOT_HEXA.matcher(hex).find()) {
-                        throw new ScannerException("while scanning a double-quoted scalar",
-                                startMark, "expected escape sequence of " + length
-                                        + " hexadecimal numbers, but found: " + hex,
-                                reader.getMark());
+                    // the digits are parsed in place, the String is created
+                    // only to report a problem
+                    long decimal = 0;
+                    for (int i = 0; i < length && decimal >= 0; i++) {
+                        int digit = hexDigit(reader.peek(i));
+                        decimal = digit < 0 ? -1 : decimal * 16 + digit;
+                    }
+                    if (decimal < 0 || decimal > Integer.MAX_VALUE) {
+                        String hex = reader.prefix(length);
+                        if (NOT_HEXA.matcher(hex).find()) {
+                            throw new ScannerException("while scanning a double-quoted scalar",
+                                    startMark, "expected escape sequence of " + length
+                                            + " hexadecimal numbers, but found: " + hex,
+                                    reader.getErrorMark());
+                        }
+                        decimal = Integer.parseInt(hex, 16);
                     }
-                    int decimal = Integer.parseInt(hex, 16);
-                    String unicode = new String(Character.toChars(decimal));
-                    chunks.append(unicode);
+                    chunks.appendCodePoint((int) decimal);
                     reader.forward(length);
                 } else if (scanLineBreak().length() != 0) {
-                    chunks.append(scanFlowScalarBreaks(startMark));
+                    scanFlowScalarBreaks(startMark, chunks);
                 } else {
                     throw new ScannerException("while scanning a double-quoted scalar", startMark,
                             "found unknown escape character " + ch + "(" + ((int) ch) + ")",
-                            reader.getMark());
+                            reader.getErrorMark());
                 }
             } else {
-                return chunks.toString();
+                return;
             }
         }
     }
 
-    private String scanFlowScalarSpaces(Mark startMark) {
+    /**
+     * @return the value of the hexadecimal digit or -1
+     */
+    private static int hexDigit(char ch) {
+        if (ch >= '0' && ch <= '9') {
+            return ch - '0';
+        } else if (ch >= 'a' && ch <= 'f') {
+            return ch - 'a' + 10;
+        } else if (ch >= 'A' && ch <= 'F') {
+            return ch - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private void scanFlowScalarSpaces(Mark startMark, StringBuilder chunks) {
         // See the specification for details.
-        StringBuilder chunks = new StringBuilder();
         int length = 0;
-        // Scan through any number of whitespace (space, tab) characters,
-        // consuming them.
+        // Scan through any number of whitespace (space, tab) characters.
         while (" \t".indexOf(reader.peek(length)) != -1) {
             length++;
         }
-        String whitespaces = reader.prefixForward(length);
-        char ch = reader.peek();
+        char ch = reader.peek(length);
         if (ch == '\0') {
+            reader.forward(length);
             // A flow scalar cannot end with an end-of-stream
             throw new ScannerException("while scanning a quoted scalar", startMark,
-                    "found unexpected end of stream", reader.getMark());
+                    "found unexpected end of stream", reader.getErrorMark());
+        }
+        if (Constant.FULL_LINEBR.hasNo(ch)) {
+            // the whitespaces are kept
+            appendForward(chunks, length);
+            return;
         }
         // If we encounter a line break, scan it into our assembled string...
+        reader.forward(length);
         String lineBreak = scanLineBreak();
-        if (lineBreak.length() != 0) {
-            String breaks = scanFlowScalarBreaks(startMark);
-            if (!"\n".equals(lineBreak)) {
-                chunks.append(lineBreak);
-            } else if (breaks.length() == 0) {
-                chunks.append(" ");
-            }
-            chunks.append(breaks);
+        if (!"\n".equals(lineBreak)) {
+            chunks.append(lineBreak);
+            scanFlowScalarBreaks(startMark, chunks);
         } else {
-            chunks.append(whitespaces);
+            int breaksStart = chunks.length();
+            scanFlowScalarBreaks(startMark, chunks);
+            if (chunks.length() == breaksStart) {
+                chunks.append(' ');
+            }
         }
-        return chunks.toString();
     }
 
-    private String scanFlowScalarBreaks(Mark startMark) {
+    private void scanFlowScalarBreaks(Mark startMark, StringBuilder chunks) {
         // See the specification for details.
-        StringBuilder chunks = new StringBuilder();
         while (true) {
             // Instead of checking indentation, we check for document
             // separators.
-            String prefix = reader.prefix(3);
-            if (("---".equals(prefix) || "...".equals(prefix))
+            if ((checkTriple('-') || checkTriple('.'))
                     && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
                 throw new ScannerException("while scanning a quoted scalar", startMark,
-                        "found unexpected document separator", reader.getMark());
+                        "found unexpected document separator", reader.getErrorMark());
             }
             // Scan past any number of spaces and tabs, ignoring them
             while (" \t".indexOf(reader.peek()) != -1) {
@@ -1967,7 +2364,7 @@ public final class ScannerImpl implements Scanner {
             if (lineBreak.length() != 0) {
                 chunks.append(lineBreak);
             } else {
-                return chunks.toString();
+                return;
             }
         }
     }
@@ -1984,43 +2381,73 @@ public final class ScannerImpl implements Scanner {
      * </pre>
      */
     private Token scanPlain() {
-        StringBuilder chunks = new StringBuilder();
+        // A one-line scalar in a String is kept as a span of the source, the
+        // StringBuilder is required only for other scalars.
+        StringBuilder chunks = null;
+        // a plain scalar followed by ':' is taken from the symbol table
+        String symbol = null;
+        int spanStart = -1;
+        int spanEnd = -1;
+        boolean sameLine = true;
         Mark startMark = reader.getMark();
         Mark endMark = startMark;
         int indent = this.indent + 1;
         String spaces = "";
+        scanStyle = this.flowLevel == 0 ? ' ' : '[';
+        scanIndent = indent;
         while (true) {
             char ch;
-            int length = 0;
             // A comment indicates the end of the scalar.
             if (reader.peek() == '#') {
                 break;
             }
-            while (true) {
-                ch = reader.peek(length);
-                if (Constant.NULL_BL_T_LINEBR.has(ch)
-                        || (this.flowLevel == 0 && ch == ':' && Constant.NULL_BL_T_LINEBR
-                                .has(reader.peek(length + 1)))
-                        || (this.flowLevel != 0 && ",:?[]{}".indexOf(ch) != -1)) {
-                    break;
-                }
-                length++;
-            }
+            int length = scanPlainLength();
+            ch = reader.peek(length);
             // It's not clear what we should do with ':' in the flow context.
             if (this.flowLevel != 0 && ch == ':'
                     && Constant.NULL_BL_T_LINEBR.hasNo(reader.peek(length + 1), ",[]{}")) {
                 reader.forward(length);
                 throw new ScannerException("while scanning a plain scalar", startMark,
-                        "found unexpected ':'", reader.getMark(),
+                        "found unexpected ':'", reader.getErrorMark(),
                         "Please check http://pyyaml.org/wiki/YAMLColonInFlowContext for details.");
             }
             if (length == 0) {
                 break;
             }
             this.allowSimpleKey = false;
-            chunks.append(spaces);
-            chunks.append(reader.prefixForward(length));
+            if (skipping) {
+                // the value is not needed
+                reader.forward(length);
+            } else if (chunks == null && spanStart < 0 && symbol == null && ch == ':'
+                    && symbolTable != null && length <= SymbolTable.MAX_LENGTH) {
+                symbol = symbolTable.intern(reader.getWindow(), reader.getPointer(), length);
+                reader.forward(length);
+            } else if (chunks == null && symbol == null && sameLine
+                    && (spanStart >= 0 || reader.supportsSpans())) {
+                if (spanStart < 0) {
+                    spanStart = reader.getIndex();
+                }
+                reader.forward(length);
+                spanEnd = reader.getIndex();
+            } else {
+                if (chunks == null) {
+                    chunks = new StringBuilder();
+                    if (symbol != null) {
+                        chunks.append(symbol);
+                    } else if (spanStart >= 0) {
+                        chunks.append(reader.getSpan(spanStart, spanEnd));
+                    }
+                }
+                chunks.append(spaces);
+                appendForward(chunks, length);
+            }
             endMark = reader.getMark();
+            // the spaces are not folded when there is no line break
+            int blanks = 0;
+            while (reader.peek(blanks) == ' ' || reader.peek(blanks) == '\t') {
+                blanks++;
+            }
+            sameLine = Constant.FULL_LINEBR.hasNo(reader.peek(blanks));
             spaces = scanPlainSpaces();
             // System.out.printf("spaces[%s]\n", spaces);
             if (spaces.length() == 0 || reader.peek() == '#'
@@ -2028,7 +2455,93 @@ public final class ScannerImpl implements Scanner {
                 break;
             }
         }
-        return new ScalarToken(chunks.toString(), startMark, endMark, true);
+        scanStyle = '\0';
+        CharSequence value;
+        if (chunks != null) {
+            value = chunks.toString();
+        } else if (symbol != null) {
+            value = symbol;
+        } else if (spanStart >= 0) {
+            value = reader.getSpan(spanStart, spanEnd);
+        } else {
+            value = "";
+        }
+        return new ScalarToken(value, true, startMark, endMark, (char) 0);
+    }
+
+    /**
+     * Count the characters of the plain scalar until a blank, a line break, a
+     * ':' followed by a blank (block context) or a flow indicator (flow
+     * context). It works directly on the window of the reader and reads more
+     * input only when the window is exhausted.
+     */
+    private int scanPlainLength() {
+        boolean flow = this.flowLevel != 0;
+        int length = 0;
+        // the characters in the window are checked before more input is
+        // requested (fed input may have no more)
+        int wanted = 2;
+        while (true) {
+            int available = reader.available(wanted);
+            boolean end = available < wanted;
+            char[] window = reader.getWindow();
+            int pointer = reader.getPointer();
+            // the character after ':' must be in the window (it is '\0' after
+            // the end of the input)
+            int limit = pointer + (end ? available : available - 1);
+            for (int i = pointer + length; i < limit; i++) {
+                char ch = window[i];
+                if (ch < 128) {
+                    byte kind = PLAIN_KINDS[ch];
+                    if (kind == PLAIN_BREAK || (flow && kind != 0)) {
+                        return i - pointer;
+                    } else if (kind == PLAIN_COLON) {
+                        char next = i + 1 < pointer + available ? window[i + 1] : '\0';
+                        if (Constant.NULL_BL_T_LINEBR.has(next)) {
+                            return i - pointer;
+                        }
+                    }
+                } else if (ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                    return i - pointer;
+                }
+            }
+            if (end) {
+                return available;
+            }
+            length = limit - pointer;
+            wanted = length + 2;
+        }
+    }
+
+    /**
+     * Count the characters until one of the given ASCII characters or a line
+     * break. Like scanPlainLength() it works directly on the window of the
+     * reader.
+     * 
+     * @param stops
+     *            the ASCII characters which end the run
+     */
+    private int scanRunLength(boolean[] stops) {
+        int length = 0;
+        int wanted = 1;
+        while (true) {
+            int available = reader.available(wanted);
+            char[] window = reader.getWindow();
+            int pointer = reader.getPointer();
+            int limit = pointer + available;
+            for (int i = pointer + length; i < limit; i++) {
+                char ch = window[i];
+                if (ch < 128 ? stops[ch]
+                        : (ch == '\u0085' || ch == '\u2028' || ch == '\u2029')) {
+                    return i - pointer;
+                }
+            }
+            if (available < wanted) {
+                return available;
+            }
+            length = available;
+            wanted = length + 1;
+        }
     }
 
     /**
@@ -2037,29 +2550,45 @@ public final class ScannerImpl implements Scanner {
      */
     private String scanPlainSpaces() {
         int length = 0;
-        while (reader.peek(length) == ' ' || reader.peek(length) == '\t') {
+        boolean tabs = false;
+        while (true) {
+            char ch = reader.peek(length);
+            if (ch == '\t') {
+                tabs = true;
+            } else if (ch != ' ') {
+                break;
+            }
             length++;
         }
-        String whitespaces = reader.prefixForward(length);
+        // the usual spaces are taken from the cache
+        String whitespaces;
+        if (tabs || length >= SPACES.length) {
+            whitespaces = reader.prefixForward(length);
+        } else {
+            whitespaces = SPACES[length];
+            reader.forward(length);
+        }
         String lineBreak = scanLineBreak();
         if (lineBreak.length() != 0) {
             this.allowSimpleKey = true;
-            String prefix = reader.prefix(3);
-            if ("---".equals(prefix) || "...".equals(prefix)
-                    && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
+            if (checkTriple('-')
+                    || (checkTriple('.') && Constant.NULL_BL_T_LINEBR.has(reader.peek(3)))) {
                 return "";
             }
-            StringBuilder breaks = new StringBuilder();
+            StringBuilder breaks = null;
             while (true) {
                 if (reader.peek() == ' ') {
                     reader.forward();
                 } else {
                     String lb = scanLineBreak();
                     if (lb.length() != 0) {
+                        if (breaks == null) {
+                            breaks = new StringBuilder();
+                        }
                         breaks.append(lb);
-                        prefix = reader.prefix(3);
-                        if ("---".equals(prefix) || "...".equals(prefix)
-                                && Constant.NULL_BL_T_LINEBR.has(reader.peek(3))) {
+                        if (checkTriple('-')
+                                || (checkTriple('.') && Constant.NULL_BL_T_LINEBR
+                                        .has(reader.peek(3)))) {
                             return "";
                         }
                     } else {
@@ -2068,8 +2597,8 @@ public final class ScannerImpl implements Scanner {
                 }
             }
             if (!"\n".equals(lineBreak)) {
-                return lineBreak + breaks;
-            } else if (breaks.length() == 0) {
+                return breaks == null ? lineBreak : lineBreak + breaks;
+            } else if (breaks == null) {
                 return " ";
             }
             return breaks.toString();
@@ -2103,7 +2632,7 @@ public final class ScannerImpl implements Scanner {
         char ch = reader.peek();
         if (ch != '!') {
             throw new ScannerException("while scanning a " + name, startMark,
-                    "expected '!', but found " + ch + "(" + ((int) ch) + ")", reader.getMark());
+                    "expected '!', but found " + ch + "(" + ((int) ch) + ")", reader.getErrorMark());
         }
         // Look for the next '!' in the stream, stopping if we hit a
         // non-word-character. If the first character is a space, then the
@@ -2125,7 +2654,7 @@ public final class ScannerImpl implements Scanner {
             if (ch != '!') {
                 reader.forward(length);
                 throw new ScannerException("while scanning a " + name, startMark,
-                        "expected '!', but found " + ch + "(" + ((int) ch) + ")", reader.getMark());
+                        "expected '!', but found " + ch + "(" + ((int) ch) + ")", reader.getErrorMark());
             }
             length++;
         }
@@ -2176,7 +2705,7 @@ public final class ScannerImpl implements Scanner {
         if (chunks.length() == 0) {
             // If no URI was found, an error has occurred.
             throw new ScannerException("while scanning a " + name, startMark,
-                    "expected URI, but found " + ch + "(" + ((int) ch) + ")", reader.getMark());
+                    "expected URI, but found " + ch + "(" + ((int) ch) + ")", reader.getErrorMark());
         }
         return chunks.toString();
     }
@@ -2203,7 +2732,7 @@ public final class ScannerImpl implements Scanner {
         // URIs containing 16 and 32 bit Unicode characters are
         // encoded in UTF-8, and then each octet is written as a
         // separate character.
-        Mark beginningMark = reader.getMark();
+        Mark beginningMark = reader.getErrorMark();
         ByteBuffer buff = ByteBuffer.allocate(length);
         while (reader.peek() == '%') {
             reader.forward();
@@ -2215,7 +2744,7 @@ public final class ScannerImpl implements Scanner {
                         "expected URI escape sequence of 2 hexadecimal numbers, but found "
                                 + reader.peek() + "(" + ((int) reader.peek()) + ") and "
                                 + reader.peek(1) + "(" + ((int) reader.peek(1)) + ")",
-                        reader.getMark());
+                        reader.getErrorMark());
             }
             reader.forward(2);
         }
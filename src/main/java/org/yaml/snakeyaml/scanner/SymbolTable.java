@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.scanner;
+
+/**
+ * Bounded table of the Strings of the mapping keys. The scanner looks up the
+ * characters of a plain scalar followed by ':' directly in the window of the
+ * reader. When the key is found its String is taken, so the repeated keys
+ * share one String and no temporary String is created. When the table is full
+ * a new key replaces an old one.
+ * <p>
+ * The table is not thread-safe. It may be used for many documents but not by
+ * the loaders which run in parallel.
+ * </p>
+ * 
+ * @see org.yaml.snakeyaml.LoaderOptions#setSymbolTable(SymbolTable)
+ */
+public final class SymbolTable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    /**
+     * Longer keys are not kept in the table
+     */
+    public static final int MAX_LENGTH = 64;
+
+    private final String[] symbols;
+    private final int[] hashes;
+    private final int mask;
+    private long hits = 0;
+    private long misses = 0;
+
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity
+     *            the maximum number of the keys (it is rounded up to a power of
+     *            two)
+     */
+    public SymbolTable(int capacity) {
+        if (capacity < 1 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^24: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.symbols = new String[size];
+        this.hashes = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Find the String with the given characters or add a new one.
+     * 
+     * @param chars
+     *            the buffer
+     * @param offset
+     *            the position of the first character
+     * @param length
+     *            the number of the characters
+     * @return the String with the characters
+     */
+    public String intern(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        // two slots are checked to keep the keys which share a slot
+        int other = (slot + 1) & mask;
+        if (matches(slot, hash, chars, offset, length)) {
+            hits++;
+            return symbols[slot];
+        } else if (matches(other, hash, chars, offset, length)) {
+            hits++;
+            return symbols[other];
+        }
+        misses++;
+        String symbol = new String(chars, offset, length);
+        if (symbols[slot] != null && symbols[other] == null) {
+            slot = other;
+        }
+        symbols[slot] = symbol;
+        hashes[slot] = hash;
+        return symbol;
+    }
+
+    private boolean matches(int slot, int hash, char[] chars, int offset, int length) {
+        String symbol = symbols[slot];
+        if (symbol == null || hashes[slot] != hash || symbol.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of the keys found in the table
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of the keys added to the table
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the maximum number of the keys
+     */
+    public int getCapacity() {
+        return symbols.length;
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolTable: capacity " + symbols.length + ", hits " + hits + ", misses "
+                + misses;
+    }
+}
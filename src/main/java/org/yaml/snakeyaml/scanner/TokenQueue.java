@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.scanner;
+
+import org.yaml.snakeyaml.tokens.Token;
+
+/**
+ * Queue of the scanned tokens in a ring buffer. The tokens are taken from the
+ * head in constant time. A token may be inserted in the middle (KEY and
+ * BLOCK-MAPPING-START are inserted before the simple key), then only the
+ * tokens after it are moved.
+ */
+final class TokenQueue {
+    private Token[] elements;
+    // the index of the first token
+    private int head = 0;
+    private int size = 0;
+
+    public TokenQueue(int initSize) {
+        int capacity = 1;
+        while (capacity < initSize) {
+            capacity <<= 1;
+        }
+        elements = new Token[capacity];
+    }
+
+    private TokenQueue(TokenQueue source) {
+        this.elements = source.elements.clone();
+        this.head = source.head;
+        this.size = source.size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the first token (it stays in the queue)
+     */
+    public Token peek() {
+        return elements[head];
+    }
+
+    /**
+     * @return the token with the given index (0 is the head)
+     */
+    public Token get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[(head + index) & (elements.length - 1)];
+    }
+
+    /**
+     * Remove the first token.
+     */
+    public Token poll() {
+        Token token = elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return token;
+    }
+
+    public void add(Token token) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = token;
+        size++;
+    }
+
+    /**
+     * Insert the token before the token with the given index (0 is the head).
+     */
+    public void add(int index, Token token) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == elements.length) {
+            grow();
+        }
+        int mask = elements.length - 1;
+        for (int i = size; i > index; i--) {
+            elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+        }
+        elements[(head + index) & mask] = token;
+        size++;
+    }
+
+    /**
+     * @return a new queue with the same tokens
+     */
+    public TokenQueue copy() {
+        return new TokenQueue(this);
+    }
+
+    private void grow() {
+        Token[] larger = new Token[elements.length * 2];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, larger, 0, firstPart);
+        System.arraycopy(elements, 0, larger, firstPart, size - firstPart);
+        elements = larger;
+        head = 0;
+    }
+}
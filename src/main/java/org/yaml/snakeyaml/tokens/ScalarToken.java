@@ -18,7 +18,9 @@ package org.yaml.snakeyaml.tokens;
 import org.yaml.snakeyaml.error.Mark;
 
 public final class ScalarToken extends Token {
-    private final String value;
+    private final CharSequence value;
+    // the String of the value, it is created only once
+    private volatile String string;
     private final boolean plain;
     private final char style;
 
@@ -27,6 +29,16 @@ public final class ScalarToken extends Token {
     }
 
     public ScalarToken(String value, boolean plain, Mark startMark, Mark endMark, char style) {
+        this((CharSequence) value, plain, startMark, endMark, style);
+    }
+
+    /**
+     * @param value
+     *            the String or a span of the source to create the String
+     *            only when it is required
+     */
+    public ScalarToken(CharSequence value, boolean plain, Mark startMark, Mark endMark,
+            char style) {
         super(startMark, endMark);
         this.value = value;
         this.plain = plain;
@@ -38,6 +50,20 @@ public final class ScalarToken extends Token {
     }
 
     public String getValue() {
+        String result = this.string;
+        if (result == null) {
+            // two threads may create the same String, it does not matter
+            result = this.value.toString();
+            this.string = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the value without creating a String when it is a span of the
+     *         source
+     */
+    public CharSequence getValueSequence() {
         return this.value;
     }
 
@@ -39,4 +39,13 @@ public class ArrayStack<T> {
     public void clear() {
         stack.clear();
     }
+
+    /**
+     * @return a new stack with the same elements
+     */
+    public ArrayStack<T> copy() {
+        ArrayStack<T> copy = new ArrayStack<T>(stack.size());
+        copy.stack.addAll(stack);
+        return copy;
+    }
 }
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.util;
+
+/**
+ * Stack of primitive ints. It is used instead of ArrayStack&lt;Integer&gt; to
+ * avoid boxing the indentation levels.
+ */
+public class IntStack {
+    private int[] stack;
+    private int size = 0;
+
+    public IntStack(int initSize) {
+        stack = new int[Math.max(initSize, 1)];
+    }
+
+    public void push(int value) {
+        if (size == stack.length) {
+            int[] larger = new int[size * 2];
+            System.arraycopy(stack, 0, larger, 0, size);
+            stack = larger;
+        }
+        stack[size++] = value;
+    }
+
+    public int pop() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Stack is empty.");
+        }
+        return stack[--size];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a new stack with the same elements
+     */
+    public IntStack copy() {
+        IntStack copy = new IntStack(size);
+        System.arraycopy(stack, 0, copy.stack, 0, size);
+        copy.size = size;
+        return copy;
+    }
+}
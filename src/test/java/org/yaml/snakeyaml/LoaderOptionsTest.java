@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.LoaderOptions.MarkMode;
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.scanner.ScannerException;
+import org.yaml.snakeyaml.scanner.SymbolTable;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+public class LoaderOptionsTest extends TestCase {
+
+    public void testDefaultMarkMode() {
+        assertEquals(MarkMode.SNIPPET, new LoaderOptions().getMarkMode());
+        Node node = new Yaml().compose(new StringReader("a: 1\nb: 2"));
+        assertNull(node.getStartMark().getSource());
+        assertEquals("    a: 1\n    ^", node.getStartMark().get_snippet());
+    }
+
+    public void testNullMarkMode() {
+        try {
+            new LoaderOptions().setMarkMode(null);
+            fail("Mark mode must be defined.");
+        } catch (NullPointerException e) {
+            assertEquals("Use MarkMode enum.", e.getMessage());
+        }
+    }
+
+    public void testPositionMarks() {
+        String data = "a: 1\nb: 2\n";
+        StreamReader reader = new StreamReader(data);
+        reader.setMarkMode(MarkMode.POSITION);
+        reader.forward(6);
+        Mark mark = reader.getMark();
+        assertEquals(6, mark.getIndex());
+        assertEquals(1, mark.getLine());
+        assertEquals(1, mark.getColumn());
+        assertEquals("    b: 2\n     ^", mark.get_snippet());
+        // all the Marks share the same source
+        reader.forward();
+        assertSame(mark.getSource(), reader.getMark().getSource());
+        mark.getSource().release();
+        assertNull(reader.getMark().get_snippet());
+    }
+
+    public void testPositionMarksFromString() {
+        LoaderOptions options = new LoaderOptions();
+        options.setMarkMode(MarkMode.POSITION);
+        MappingNode node = (MappingNode) new Yaml(options).compose(new StringReader("a: 1\nb: 2"));
+        Node value = node.getValue().get(1).getValueNode();
+        assertNull(value.getStartMark().getSource());
+        assertEquals(1, value.getStartMark().getLine());
+        assertEquals(3, value.getStartMark().getColumn());
+        try {
+            new Yaml(options).load("a: 1\nb: [2\n");
+            fail("Invalid document must be reported.");
+        } catch (MarkedYAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("    b: [2\n       ^"));
+            assertNotNull(e.getProblemMark().getSource());
+        }
+    }
+
+    public void testSourceReleasedAfterLoad() {
+        final List<Mark> marks = new ArrayList<Mark>();
+        Constructor constructor = new Constructor() {
+            {
+                this.yamlConstructors.put(new Tag("!mark"), new AbstractConstruct() {
+                    public Object construct(Node node) {
+                        marks.add(node.getStartMark());
+                        return constructScalar((ScalarNode) node);
+                    }
+                });
+            }
+        };
+        assertEquals("value", new Yaml(constructor).loadAs("a: !mark value\n", Map.class)
+                .get("a"));
+        Mark mark = marks.get(0);
+        assertEquals(0, mark.getLine());
+        assertEquals(3, mark.getColumn());
+        assertTrue(mark.getSource().isReleased());
+        assertNull(mark.get_snippet());
+        // the error keeps the snippet
+        try {
+            new Yaml(constructor).load("a: !mark value\nb: [2\n");
+            fail("Invalid document must be reported.");
+        } catch (MarkedYAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("    b: [2\n       ^"));
+        }
+    }
+
+    public void testPositionMarksFromReader() {
+        LoaderOptions options = new LoaderOptions();
+        options.setMarkMode(MarkMode.POSITION);
+        try {
+            new Yaml(options).load(new StringReader("a: 1\nb: [2\n"));
+            fail("Invalid document must be reported.");
+        } catch (MarkedYAMLException e) {
+            // only the position without the snippet
+            assertNull(e.getProblemMark().getSource());
+            assertTrue(e.getMessage(), e.getMessage().contains("line 3, column 1\n"));
+            assertFalse(e.getMessage(), e.getMessage().contains("^"));
+        }
+    }
+
+    public void testNoMarks() {
+        LoaderOptions options = new LoaderOptions();
+        options.setMarkMode(MarkMode.NONE);
+        Yaml yaml = new Yaml(options);
+        MappingNode node = (MappingNode) yaml.compose(new StringReader("a: 1\nb: [2, 3]"));
+        assertSame(Mark.UNKNOWN, node.getStartMark());
+        assertSame(Mark.UNKNOWN, node.getEndMark());
+        ScalarNode key = (ScalarNode) node.getValue().get(1).getKeyNode();
+        assertEquals("b", key.getValue());
+        assertSame(Mark.UNKNOWN, key.getStartMark());
+        assertEquals("{a=1, b=[2, 3]}", yaml.load("a: 1\nb: [2, 3]").toString());
+    }
+
+    public void testNoMarksScannerError() {
+        LoaderOptions options = new LoaderOptions();
+        options.setMarkMode(MarkMode.NONE);
+        try {
+            new Yaml(options).load("a: 1\nb: \"2\n");
+            fail("Invalid document must be reported.");
+        } catch (ScannerException e) {
+            assertEquals(11, e.getProblemMark().getIndex());
+            assertEquals(-1, e.getProblemMark().getLine());
+            assertTrue(e.getMessage(), e.getMessage().contains(" in 'string', index 11"));
+            assertSame(Mark.UNKNOWN, e.getContextMark());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSymbolTable() {
+        LoaderOptions options = new LoaderOptions();
+        assertNull(options.getSymbolTable());
+        SymbolTable table = new SymbolTable(16);
+        options.setSymbolTable(table);
+        Yaml yaml = new Yaml(options);
+        List<Map<String, Object>> list = (List<Map<String, Object>>) yaml
+                .load("- name: a\n  id: 1\n- name: b\n  id: 2\n- {name: c, 'id': 3}");
+        assertEquals(3, list.size());
+        String first = list.get(0).keySet().iterator().next();
+        assertEquals("name", first);
+        assertSame(first, list.get(1).keySet().iterator().next());
+        assertSame(first, list.get(2).keySet().iterator().next());
+        assertEquals(new Integer(3), list.get(2).get("id"));
+        // 'id' is quoted, the values are not followed by ':'
+        assertEquals(2, table.getMisses());
+        assertEquals(3, table.getHits());
+        // the table is shared by the documents
+        Map<String, Object> map = (Map<String, Object>) yaml.load(new StringReader("name: d"));
+        assertSame(first, map.keySet().iterator().next());
+        assertEquals(4, table.getHits());
+    }
+
+    public void testLargeScalarLimit() {
+        LoaderOptions options = new LoaderOptions();
+        assertEquals(Integer.MAX_VALUE, options.getLargeScalarLimit());
+        try {
+            options.setLargeScalarLimit(0);
+            fail("The limit must be positive.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("The limit must be positive: 0", e.getMessage());
+        }
+        options.setLargeScalarLimit(8);
+        Yaml yaml = new Yaml(options);
+        Object data = yaml.load("a: |\n  first\n  second\nb: |\n  short\n");
+        assertEquals("{a=first\nsecond\n, b=short\n}", data.toString());
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.error.YAMLException;
+
+public class ParallelLoaderTest extends TestCase {
+    private static final String STREAM = "# comment\nfirst: 1\n--- |\n  ---\n  text\n"
+            + "--- 'quoted\n  --- inside'\n--- plain\n  ---\n...\n# after the end\n%YAML 1.1\n"
+            + "%TAG !e! tag:yaml.org,2002:\n--- !e!int 7\n...\r\n---\r\n- a\r\n"
+            + "--- &x [*x]\n---\n...\n";
+
+    public void testSplit() {
+        List<String> parts = new ArrayList<String>();
+        DocumentSplitter splitter = new DocumentSplitter(new StringReader(STREAM));
+        String part;
+        while ((part = splitter.next()) != null) {
+            parts.add(part);
+        }
+        assertEquals(8, parts.size());
+        assertEquals("# comment\nfirst: 1\n", parts.get(0));
+        assertEquals("--- |\n  ---\n  text\n", parts.get(1));
+        assertEquals("--- plain\n  ---\n...\n", parts.get(3));
+        // the comment and the directives go to the next document
+        assertEquals("# after the end\n%YAML 1.1\n%TAG !e! tag:yaml.org,2002:\n--- !e!int 7\n"
+                + "...\r\n", parts.get(4));
+        assertEquals("---\r\n- a\r\n", parts.get(5));
+        assertEquals("---\n...\n", parts.get(7));
+    }
+
+    public void testSplitDirectives() {
+        List<String> parts = new ArrayList<String>();
+        DocumentSplitter splitter = new DocumentSplitter(new StringReader(
+                "a: 1\n# comment\n\n%YAML 1.1\n# more\n--- |+\n  b\n\n---\nc\n"));
+        String part;
+        while ((part = splitter.next()) != null) {
+            parts.add(part);
+        }
+        assertEquals(3, parts.size());
+        // a directive may end an implicit document
+        assertEquals("a: 1\n", parts.get(0));
+        assertEquals("# comment\n\n%YAML 1.1\n# more\n--- |+\n  b\n\n", parts.get(1));
+        assertEquals("---\nc\n", parts.get(2));
+    }
+
+    public void testSameAsLoadAll() {
+        List<Object> expected = new ArrayList<Object>();
+        for (Object data : new Yaml().loadAll(STREAM)) {
+            expected.add(data);
+        }
+        assertEquals(8, expected.size());
+        for (int threads = 1; threads <= 3; threads++) {
+            ParallelLoader loader = new ParallelLoader(threads, new Callable<Yaml>() {
+                public Yaml call() {
+                    return new Yaml();
+                }
+            });
+            List<Object> result = new ArrayList<Object>();
+            for (Object data : loader.loadAll(STREAM)) {
+                result.add(data);
+            }
+            // the recursive list is not equal to itself
+            assertEquals(expected.subList(0, 6), result.subList(0, 6));
+            assertEquals(expected.size(), result.size());
+            List<?> recursive = (List<?>) result.get(6);
+            assertSame(recursive, recursive.get(0));
+            assertNull(result.get(7));
+        }
+    }
+
+    public void testManyDocuments() {
+        StringBuilder stream = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            stream.append("--- {id: ").append(i).append(", name: \"n").append(i).append("\"}\n");
+        }
+        final AtomicInteger created = new AtomicInteger();
+        ParallelLoader loader = new ParallelLoader(4, new Callable<Yaml>() {
+            public Yaml call() {
+                created.incrementAndGet();
+                return new Yaml();
+            }
+        });
+        int count = 0;
+        for (Object data : loader.loadAll(new StringReader(stream.toString()))) {
+            assertEquals(Integer.valueOf(count), ((Map<?, ?>) data).get("id"));
+            count++;
+        }
+        assertEquals(1000, count);
+        assertTrue(String.valueOf(created.get()), created.get() <= 4);
+    }
+
+    public void testError() {
+        ParallelLoader loader = new ParallelLoader();
+        List<Object> result = new ArrayList<Object>();
+        try {
+            for (Object data : loader.loadAll("--- a\n--- [b\n--- c\n")) {
+                result.add(data);
+            }
+            fail("The second document is invalid.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("while parsing a flow sequence"));
+        }
+        assertEquals(1, result.size());
+        assertEquals("a", result.get(0));
+    }
+
+    public void testDirectiveAfterBatch() {
+        StringBuilder stream = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            stream.append("key").append(i).append(": value ").append(i).append('\n');
+        }
+        // the first document fills the first batch
+        assertTrue(stream.length() > 32 * 1024);
+        stream.append("# comment\n%YAML 1.1\n---\nb: 2\n");
+        stream.append("%TAG !e! tag:yaml.org,2002:\n--- !e!str c\n");
+        List<Object> expected = new ArrayList<Object>();
+        for (Object data : new Yaml().loadAll(stream.toString())) {
+            expected.add(data);
+        }
+        assertEquals(3, expected.size());
+        List<Object> result = new ArrayList<Object>();
+        for (Object data : new ParallelLoader().loadAll(stream.toString())) {
+            result.add(data);
+        }
+        assertEquals(expected, result);
+    }
+
+    public void testSplitScalarContent() {
+        // the stream and its first part
+        String[][] streams = { { "--- \"a\n%b c\"\n--- d\n", "--- \"a\n%b c\"\n" },
+                { "--- 'a\n\n%b'' c'\n--- d\n", "--- 'a\n\n%b'' c'\n" },
+                { "--- [a\n%b]\n--- d\n", "--- [a\n%b]\n" },
+                { "--- plain\n\n%b\n--- d\n", "--- plain\n\n%b\n" },
+                { "--- !!str &x plain\n%b c\n--- d\n", "--- !!str &x plain\n%b c\n" },
+                { "key: \"a # b\n%c\"\n--- d\n", "key: \"a # b\n%c\"\n" },
+                // the directives
+                { "--- |\n  '\n%YAML 1.1\n--- d\n", "--- |\n  '\n" },
+                { "--- plain\n# end\n%YAML 1.1\n--- d\n", "--- plain\n" },
+                { "- 'a'\n- [b]\n%YAML 1.1\n--- d\n", "- 'a'\n- [b]\n" },
+                { "--- |\n  a\n  # b\n%YAML 1.1\n--- d\n", "--- |\n  a\n  # b\n" },
+                { "a: 1\n%YAML 1.1  # c\n  # d\n--- e\n", "a: 1\n" } };
+        for (String[] stream : streams) {
+            List<String> parts = new ArrayList<String>();
+            DocumentSplitter splitter = new DocumentSplitter(new StringReader(stream[0]));
+            String part;
+            while ((part = splitter.next()) != null) {
+                parts.add(part);
+            }
+            assertEquals(stream[0], 2, parts.size());
+            assertEquals(stream[1], parts.get(0));
+            assertEquals(stream[0], parts.get(0) + parts.get(1));
+            List<Object> expected = new ArrayList<Object>();
+            for (String text : parts) {
+                for (Object data : new Yaml().loadAll(text)) {
+                    expected.add(data);
+                }
+            }
+            List<Object> result = new ArrayList<Object>();
+            for (Object data : new Yaml().loadAll(stream[0])) {
+                result.add(data);
+            }
+            assertEquals(stream[0], expected, result);
+        }
+    }
+
+    public void testDirectiveInQuotedScalar() {
+        StringBuilder stream = new StringBuilder("--- \"");
+        for (int i = 0; i < 4000; i++) {
+            stream.append("filler line ").append(i).append('\n');
+        }
+        // the line would end the first batch if it was taken as a directive
+        stream.append("%foo bar\"\n--- b\n");
+        List<Object> expected = new ArrayList<Object>();
+        for (Object data : new Yaml().loadAll(stream.toString())) {
+            expected.add(data);
+        }
+        assertEquals(2, expected.size());
+        List<Object> result = new ArrayList<Object>();
+        for (Object data : new ParallelLoader().loadAll(stream.toString())) {
+            result.add(data);
+        }
+        assertEquals(expected, result);
+    }
+
+    public void testErrorLine() {
+        StringBuilder stream = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            stream.append("--- {id: ").append(i).append(", name: n").append(i).append("}\r\n");
+        }
+        stream.append("--- [unclosed\n");
+        Mark expected = null;
+        String message = null;
+        try {
+            for (Object data : new Yaml().loadAll(stream.toString())) {
+                assertNotNull(data);
+            }
+            fail("The last document is invalid.");
+        } catch (MarkedYAMLException e) {
+            expected = e.getProblemMark();
+            message = e.getMessage();
+        }
+        try {
+            for (Object data : new ParallelLoader().loadAll(stream.toString())) {
+                assertNotNull(data);
+            }
+            fail("The last document is invalid.");
+        } catch (MarkedYAMLException e) {
+            assertEquals(3001, expected.getLine());
+            assertEquals(expected.getLine(), e.getProblemMark().getLine());
+            assertEquals(expected.getColumn(), e.getProblemMark().getColumn());
+            assertEquals(expected.getIndex(), e.getProblemMark().getIndex());
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    public void testThreads() {
+        try {
+            new ParallelLoader(0, null);
+            fail("No threads.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("At least one thread is required: 0", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+public class YamlFileTest extends TestCase {
+
+    private File createFile(String content, String encoding) throws IOException {
+        File file = File.createTempFile("snakeyaml", ".yaml");
+        file.deleteOnExit();
+        FileOutputStream output = new FileOutputStream(file);
+        output.write(content.getBytes(encoding));
+        output.close();
+        return file;
+    }
+
+    public void testLoadFile() throws IOException {
+        File file = new File("src/test/resources/reader/large.yaml");
+        InputStream input = new FileInputStream(file);
+        Object expected = new Yaml().load(input);
+        input.close();
+        assertEquals(expected, new Yaml().load(file));
+    }
+
+    public void testLoadFileChannel() throws IOException {
+        File file = createFile("abc: [1, 2]\n", "UTF-8");
+        FileInputStream input = new FileInputStream(file);
+        FileChannel channel = input.getChannel();
+        channel.position(5);
+        assertEquals("[1, 2]", new Yaml().load(channel).toString());
+        assertTrue("The channel must not be closed.", channel.isOpen());
+        input.close();
+    }
+
+    public void testLoadAsFile() throws IOException {
+        File file = createFile("﻿given: Мария\nfamily: Иванова\n", "UTF-16LE");
+        Person person = new Yaml().loadAs(file, Person.class);
+        assertEquals("Мария", person.given);
+        FileInputStream input = new FileInputStream(file);
+        person = new Yaml().loadAs(input.getChannel(), Person.class);
+        input.close();
+        assertEquals("Иванова", person.family);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLoadAllFile() throws IOException {
+        File file = createFile("a: 1\n---\n- été\n---\n3\n", "UTF-8");
+        int count = 0;
+        for (Object document : new Yaml().loadAll(file)) {
+            switch (count++) {
+            case 0:
+                assertEquals(1, ((Map<String, Object>) document).get("a"));
+                break;
+            case 1:
+                assertEquals("été", ((List<Object>) document).get(0));
+                break;
+            default:
+                assertEquals(3, document);
+            }
+        }
+        assertEquals(3, count);
+        FileInputStream input = new FileInputStream(file);
+        count = 0;
+        for (@SuppressWarnings("unused")
+        Object document : new Yaml().loadAll(input.getChannel())) {
+            count++;
+        }
+        input.close();
+        assertEquals(3, count);
+    }
+
+    public void testComposeFile() throws IOException {
+        File file = createFile("abc: 56", "UTF-8");
+        MappingNode node = (MappingNode) new Yaml().compose(file);
+        assertEquals("abc", ((ScalarNode) node.getValue().get(0).getKeyNode()).getValue());
+        FileInputStream input = new FileInputStream(file);
+        node = (MappingNode) new Yaml().compose(input.getChannel());
+        input.close();
+        assertEquals("56", ((ScalarNode) node.getValue().get(0).getValueNode()).getValue());
+    }
+
+    public void testEmptyFile() throws IOException {
+        assertNull(new Yaml().load(createFile("", "UTF-8")));
+    }
+
+    public void testMissingFile() {
+        try {
+            new Yaml().load(new File("src/test/resources/reader/no-such-file.yaml"));
+            fail("Missing file must be reported.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("no-such-file.yaml"));
+        }
+    }
+}
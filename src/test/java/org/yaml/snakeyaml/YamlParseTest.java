@@ -77,4 +77,91 @@ public class YamlParseTest extends TestCase {
         assertTrue(e instanceof StreamEndEvent);
         assertEquals(14, counter);
     }
+
+    public void testParseWithHandler() {
+        String data = "%YAML 1.1\n--- !!map\na: &x [1, 'b', {c: !!str }]\nd: *x\n"
+                + "---\n|\n  e\n...\n";
+        Yaml yaml = new Yaml();
+        StringBuilder expected = new StringBuilder();
+        for (Event event : yaml.parse(new StringReader(data))) {
+            if (event instanceof ScalarEvent) {
+                ScalarEvent scalar = (ScalarEvent) event;
+                expected.append("scalar " + scalar.getAnchor() + " " + scalar.getTag() + " "
+                        + scalar.getImplicit() + " " + scalar.getValue() + " "
+                        + (int) scalar.getStyle().charValue() + "\n");
+            } else if (event instanceof CollectionStartEvent) {
+                CollectionStartEvent start = (CollectionStartEvent) event;
+                expected.append((event instanceof MappingStartEvent ? "mapping " : "sequence ")
+                        + start.getAnchor() + " " + start.getTag() + " " + start.getImplicit()
+                        + " " + start.getFlowStyle() + "\n");
+            } else if (event instanceof AliasEvent) {
+                expected.append("alias " + ((AliasEvent) event).getAnchor() + "\n");
+            } else if (event instanceof DocumentStartEvent) {
+                DocumentStartEvent start = (DocumentStartEvent) event;
+                expected.append("document " + start.getExplicit() + " " + start.getVersion()
+                        + " " + start.getTags().size() + "\n");
+            } else if (event instanceof DocumentEndEvent) {
+                expected.append("document end " + ((DocumentEndEvent) event).getExplicit() + "\n");
+            } else if (event instanceof MappingEndEvent) {
+                expected.append("mapping end\n");
+            } else if (event instanceof SequenceEndEvent) {
+                expected.append("sequence end\n");
+            } else if (event instanceof StreamStartEvent) {
+                expected.append("stream\n");
+            } else {
+                expected.append("stream end\n");
+            }
+        }
+        final StringBuilder result = new StringBuilder();
+        yaml.parse(new StringReader(data), new YamlEventHandler() {
+            public void onStreamStart() {
+                result.append("stream\n");
+            }
+
+            public void onDocumentStart(boolean explicit, DumperOptions.Version version,
+                    Map<String, String> tags) {
+                result.append("document " + explicit + " " + version + " " + tags.size() + "\n");
+            }
+
+            public void onDocumentEnd(boolean explicit) {
+                result.append("document end " + explicit + "\n");
+            }
+
+            public void onScalar(String anchor, String tag, ImplicitTuple implicit,
+                    CharSequence value, Character style) {
+                result.append("scalar " + anchor + " " + tag + " " + implicit + " " + value + " "
+                        + (int) style.charValue() + "\n");
+            }
+
+            public void onAlias(String anchor) {
+                result.append("alias " + anchor + "\n");
+            }
+
+            public void onSequenceStart(String anchor, String tag, boolean implicit,
+                    Boolean flowStyle) {
+                result.append("sequence " + anchor + " " + tag + " " + implicit + " " + flowStyle
+                        + "\n");
+            }
+
+            public void onSequenceEnd() {
+                result.append("sequence end\n");
+            }
+
+            public void onMappingStart(String anchor, String tag, boolean implicit,
+                    Boolean flowStyle) {
+                result.append("mapping " + anchor + " " + tag + " " + implicit + " " + flowStyle
+                        + "\n");
+            }
+
+            public void onMappingEnd() {
+                result.append("mapping end\n");
+            }
+
+            public void onStreamEnd() {
+                result.append("stream end\n");
+            }
+        });
+        assertTrue(expected.toString(), expected.indexOf("alias x") > 0);
+        assertEquals(expected.toString(), result.toString());
+    }
 }
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.constructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.external.biz.base64Coder.Base64Coder;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.reader.DirectCharSequence;
+
+public class LargeScalarTest extends TestCase {
+
+    private static final byte[] BINARY = new byte[3000];
+    static {
+        for (int i = 0; i < BINARY.length; i++) {
+            BINARY[i] = (byte) (i * 7);
+        }
+    }
+
+    private static final String TAG = "!!org.yaml.snakeyaml.constructor.LargeScalarTest$Archive\n";
+
+    private String createDocument(StringBuilder text) {
+        StringBuilder builder = new StringBuilder(TAG);
+        builder.append("text: |\n");
+        for (int i = 0; i < 100; i++) {
+            builder.append("  line ").append(i).append('\n');
+            text.append("line ").append(i).append('\n');
+        }
+        // no line breaks are allowed in the Base64 data
+        String encoded = String.valueOf(Base64Coder.encode(BINARY));
+        builder.append("data: !!binary |-\n  ").append(encoded).append('\n');
+        builder.append("stream: !!binary >-\n  ").append(encoded).append('\n');
+        builder.append("name: short\n");
+        return builder.toString();
+    }
+
+    public void testLargeScalars() throws IOException {
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(100);
+        Yaml yaml = new Yaml(options);
+        StringBuilder text = new StringBuilder();
+        Archive archive = (Archive) yaml.load(createDocument(text));
+        assertEquals("short", archive.getName());
+        assertEquals(text.toString(), read(archive.getText()));
+        assertTrue(Arrays.equals(BINARY, archive.getData()));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int b;
+        while ((b = archive.getStream().read()) != -1) {
+            output.write(b);
+        }
+        assertTrue(Arrays.equals(BINARY, output.toByteArray()));
+    }
+
+    public void testNodeValue() {
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(10);
+        String data = "short: |\n  abc\nlong: |\n  first line\n  second line\n";
+        MappingNode node = (MappingNode) new Yaml(options).compose(new StringReader(data));
+        ScalarNode small = (ScalarNode) node.getValue().get(0).getValueNode();
+        assertEquals(String.class, small.getValueSequence().getClass());
+        ScalarNode large = (ScalarNode) node.getValue().get(1).getValueNode();
+        assertEquals(DirectCharSequence.class, large.getValueSequence().getClass());
+        assertEquals("first line\nsecond line\n", large.getValue());
+        assertEquals("tag:yaml.org,2002:str", large.getTag().getValue());
+    }
+
+    public void testInvalidBase64() {
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(10);
+        try {
+            new Yaml(options).load(TAG + "data: !!binary |-\n  AAAAAAAAAA\n");
+            fail("Base64 must be checked.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(
+                    "Length of Base64 encoded input string is not a multiple of 4."));
+        }
+    }
+
+    public void testDumpBinary() {
+        Archive archive = new Archive();
+        archive.setData(BINARY);
+        String document = new Yaml().dump(archive);
+        assertTrue(document, document.contains("data: !!binary |"));
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(100);
+        Yaml yaml = new Yaml(options);
+        MappingNode node = (MappingNode) yaml.compose(new StringReader(document));
+        ScalarNode data = (ScalarNode) node.getValue().get(0).getValueNode();
+        assertEquals(DirectCharSequence.class, data.getValueSequence().getClass());
+        Archive loaded = (Archive) yaml.load(document);
+        assertTrue(Arrays.equals(BINARY, loaded.getData()));
+        // without a bean
+        byte[] value = (byte[]) yaml.load("!!binary |-\n  "
+                + String.valueOf(Base64Coder.encode(BINARY)) + "\n");
+        assertTrue(Arrays.equals(BINARY, value));
+    }
+
+    public void testSmallBinary() {
+        // the same rules for a small and for a large value
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(5);
+        for (Yaml yaml : new Yaml[] { new Yaml(), new Yaml(options) }) {
+            byte[] value = (byte[]) yaml.load("!!binary |-\n  AAAAAAAA\n");
+            assertTrue(Arrays.equals(new byte[6], value));
+            try {
+                yaml.load("!!binary |\n  AAAA\n  AAAA\n");
+                fail("The line breaks are not allowed.");
+            } catch (RuntimeException e) {
+                assertEquals("Length of Base64 encoded input string is not a multiple of 4.",
+                        e.getMessage());
+            }
+            try {
+                yaml.load("!!binary |-\n  AAAA\n  AAA\n");
+                fail("The line breaks are not allowed.");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(),
+                        e.getMessage().contains("Illegal character in Base64 encoded data."));
+            }
+        }
+    }
+
+    public void testBinaryWithoutTag() {
+        LoaderOptions options = new LoaderOptions();
+        options.setLargeScalarLimit(10);
+        try {
+            new Yaml(options).load(TAG + "data: |\n  AAAA\n  AAAA\n");
+            fail("Only !!binary is decoded.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("No single argument constructor"));
+        }
+    }
+
+    private String read(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[64];
+        int count;
+        while ((count = reader.read(buffer)) != -1) {
+            builder.append(buffer, 0, count);
+        }
+        return builder.toString();
+    }
+
+    public static class Archive {
+        private String name;
+        private Reader text;
+        private byte[] data;
+        private InputStream stream;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Reader getText() {
+            return text;
+        }
+
+        public void setText(Reader text) {
+            this.text = text;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public void setData(byte[] data) {
+            this.data = data;
+        }
+
+        public InputStream getStream() {
+            return stream;
+        }
+
+        public void setStream(InputStream stream) {
+            this.stream = stream;
+        }
+    }
+}
@@ -40,4 +40,30 @@ public class MarkTest extends TestCase {
         assertEquals(29, mark.getLine());
         assertEquals(213, mark.getColumn());
     }
+
+    public void testSource() {
+        MarkSource source = new MarkSource("The first line.\nThe last*line.");
+        Mark mark = new Mark("test1", 24, 1, 8, source);
+        assertSame(source, mark.getSource());
+        assertEquals("    The last*line.\n            ^", mark.get_snippet());
+        source.release();
+        assertTrue(source.isReleased());
+        assertNull(mark.get_snippet());
+        assertEquals(" in test1, line 2, column 9", mark.toString());
+    }
+
+    public void testNoSource() {
+        Mark mark = new Mark("test1", 24, 1, 8, (MarkSource) null);
+        assertNull(mark.getSource());
+        assertNull(mark.get_snippet());
+        assertEquals(24, mark.getIndex());
+    }
+
+    public void testUnknown() {
+        assertNull(Mark.UNKNOWN.get_snippet());
+        assertEquals(-1, Mark.UNKNOWN.getIndex());
+        assertEquals(" in <unknown>", Mark.UNKNOWN.toString());
+        Mark mark = new Mark("'reader'", 17, -1, -1, (MarkSource) null);
+        assertEquals(" in 'reader', index 17", mark.toString());
+    }
 }
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.LoaderOptions.MarkMode;
+import org.yaml.snakeyaml.Util;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+public class FeedParserTest extends TestCase {
+    private static final String DOCUMENT = "%YAML 1.1\n%TAG !e! tag:example.com,2000:\n"
+            + "--- !e!root\nplain: multi\n  line scalar\r\nquoted: \"first\n  second\"\n"
+            + "'single': 'it''s'\nliteral: |\n  one\n  two\nfolded: >-\n  three\n  four\n"
+            + "anchor: &a {x: 1, y: [2, 3]}  # comment\nalias: *a\n? complex\n: - seq\n"
+            + "  - !!str 5\nкириллица: ёжик\n...\n--- second\n--- [a, b]\n";
+
+    private List<Event> parse(String data) {
+        List<Event> events = new ArrayList<Event>();
+        Parser parser = new ParserImpl(new StreamReader(new StringReader(data)));
+        while (parser.peekEvent() != null) {
+            events.add(parser.getEvent());
+        }
+        return events;
+    }
+
+    private void take(FeedParser parser, List<Event> events) {
+        while (parser.next() == FeedParser.Status.EVENT) {
+            events.add(parser.getEvent());
+        }
+    }
+
+    private List<Event> feed(byte[] data, int chunk, LoaderOptions options) {
+        FeedParser parser = new FeedParser(options);
+        List<Event> events = new ArrayList<Event>();
+        for (int i = 0; i < data.length; i += chunk) {
+            parser.feed(ByteBuffer.wrap(data, i, Math.min(chunk, data.length - i)));
+            take(parser, events);
+        }
+        parser.endOfInput();
+        take(parser, events);
+        assertEquals(FeedParser.Status.END, parser.next());
+        return events;
+    }
+
+    private void check(String data, String encoding, boolean bom)
+            throws UnsupportedEncodingException {
+        List<Event> expected = parse(data);
+        // the BOM is removed
+        byte[] bytes = ((bom ? "\uFEFF" : "") + data).getBytes(encoding);
+        for (int chunk = 1; chunk < 40; chunk += 3) {
+            List<Event> events = feed(bytes, chunk, new LoaderOptions());
+            assertEquals("Chunk: " + chunk, expected, events);
+            for (int i = 0; i < events.size(); i++) {
+                Mark mark = events.get(i).getStartMark();
+                Mark expectedMark = expected.get(i).getStartMark();
+                assertEquals(expectedMark.getIndex(), mark.getIndex());
+                assertEquals(expectedMark.getLine(), mark.getLine());
+                assertEquals(expectedMark.getColumn(), mark.getColumn());
+                assertEquals(expectedMark.get_snippet(), mark.get_snippet());
+            }
+        }
+    }
+
+    public void testDocument() throws UnsupportedEncodingException {
+        check(DOCUMENT, "UTF-8", false);
+    }
+
+    public void testBom() throws UnsupportedEncodingException {
+        check(DOCUMENT, "UTF-8", true);
+        check(DOCUMENT, "UTF-16LE", true);
+        check(DOCUMENT, "UTF-16BE", true);
+    }
+
+    public void testLargeDocument() throws UnsupportedEncodingException {
+        String data = Util.getLocalResource("reader/large.yaml");
+        List<Event> expected = parse(data);
+        assertEquals(expected, feed(data.getBytes("UTF-8"), 1, new LoaderOptions()));
+        assertEquals(expected, feed(data.getBytes("UTF-8"), 1000, new LoaderOptions()));
+    }
+
+    public void testNoMarks() throws UnsupportedEncodingException {
+        LoaderOptions options = new LoaderOptions();
+        options.setMarkMode(MarkMode.NONE);
+        List<Event> events = feed(DOCUMENT.getBytes("UTF-8"), 5, options);
+        assertEquals(parse(DOCUMENT), events);
+        assertSame(Mark.UNKNOWN, events.get(3).getStartMark());
+    }
+
+    public void testEventsBeforeEnd() throws UnsupportedEncodingException {
+        FeedParser parser = new FeedParser();
+        assertEquals(FeedParser.Status.EVENT, parser.next());
+        assertTrue(parser.getEvent().is(Event.ID.StreamStart));
+        assertEquals(FeedParser.Status.NEED_MORE_INPUT, parser.next());
+        assertNull(parser.getEvent());
+        parser.feed(ByteBuffer.wrap("list: [first, sec".getBytes("UTF-8")));
+        List<Event> events = new ArrayList<Event>();
+        take(parser, events);
+        // DocumentStart, MappingStart, 'list', SequenceStart, 'first'
+        assertEquals(5, events.size());
+        assertEquals("first", ((ScalarEvent) events.get(4)).getValue());
+        assertEquals(FeedParser.Status.NEED_MORE_INPUT, parser.next());
+        parser.feed(ByteBuffer.wrap("ond]\n".getBytes("UTF-8")));
+        parser.endOfInput();
+        take(parser, events);
+        assertEquals(10, events.size());
+        assertTrue(events.get(9).is(Event.ID.StreamEnd));
+        assertEquals(FeedParser.Status.END, parser.next());
+    }
+
+    public void testEventsWithoutEndOfInput() throws UnsupportedEncodingException {
+        String[] parts = { "--- {first: 1, text: \"a long quoted value that is split",
+                " here\"}\n", "...\n" };
+        FeedParser parser = new FeedParser();
+        List<Event> events = new ArrayList<Event>();
+        for (String part : parts) {
+            parser.feed(ByteBuffer.wrap(part.getBytes("UTF-8")));
+            take(parser, events);
+        }
+        // endOfInput() is never called, only StreamEnd is missing
+        List<Event> expected = parse(parts[0] + parts[1] + parts[2]);
+        assertEquals(expected.subList(0, expected.size() - 1), events);
+        assertEquals("a long quoted value that is split here",
+                ((ScalarEvent) events.get(6)).getValue());
+        assertTrue(events.get(events.size() - 1).is(Event.ID.DocumentEnd));
+        assertEquals(FeedParser.Status.NEED_MORE_INPUT, parser.next());
+        // in small parts
+        parser = new FeedParser();
+        events.clear();
+        byte[] bytes = (parts[0] + parts[1] + parts[2]).getBytes("UTF-8");
+        for (int i = 0; i < bytes.length; i += 7) {
+            parser.feed(ByteBuffer.wrap(bytes, i, Math.min(7, bytes.length - i)));
+            take(parser, events);
+        }
+        assertEquals(expected.subList(0, expected.size() - 1), events);
+    }
+
+    private List<Event> takeAll(byte[] data) {
+        FeedParser parser = new FeedParser();
+        parser.feed(ByteBuffer.wrap(data));
+        List<Event> events = new ArrayList<Event>();
+        take(parser, events);
+        return events;
+    }
+
+    public void testNoEventIsHeldBack() throws UnsupportedEncodingException {
+        String[] documents = { DOCUMENT,
+                "a: |\n  one\n\n  two\nb: 1\nc: >2\n   three\n  four\nd: 5\n",
+                "plain: one\n  two # comment\nnext: 'single\n  quoted'\n",
+                "- \"a\n  b\"\n- [c, d\n  e]\n- f: g\n  # comment\n  h: i\n",
+                "top level\nplain\n---\n\"quoted\n\"\n...\n--- |\n text\n---\n" };
+        for (String document : documents) {
+            byte[] bytes = document.getBytes("UTF-8");
+            FeedParser parser = new FeedParser();
+            List<Event> events = new ArrayList<Event>();
+            for (int i = 0; i < bytes.length; i++) {
+                parser.feed(ByteBuffer.wrap(bytes, i, 1));
+                take(parser, events);
+                byte[] part = new byte[i + 1];
+                System.arraycopy(bytes, 0, part, 0, part.length);
+                // as many events as the first attempt with the same input gets
+                assertEquals(document + i, takeAll(part), events);
+            }
+        }
+    }
+
+    public void testLargeScalarsInSmallParts() throws UnsupportedEncodingException {
+        String line = "  some text, with spaces - and punctuation\n";
+        String[][] scalars = { { "a: |\n", "" }, { "a: >-\n", "" }, { "a: word\n", "" },
+                { "a: \"", "\"\n" }, { "a: '", "'\n" }, { "a: [b\n", "]\n" },
+                { "a: 1 #", "\n" } };
+        for (String[] scalar : scalars) {
+            String start = scalar[0];
+            StringBuilder builder = new StringBuilder(start);
+            for (int i = 0; i < 5000; i++) {
+                if (start.endsWith("#")) {
+                    // a comment is one long line
+                    builder.append(line.trim());
+                } else if (start.endsWith("[b\n")) {
+                    // ',' ends a plain scalar in a flow collection
+                    builder.append(line.replace(',', ';'));
+                } else {
+                    builder.append(line);
+                }
+            }
+            builder.append(scalar[1]).append("b: c\n");
+            String document = builder.toString();
+            byte[] bytes = document.getBytes("UTF-8");
+            FeedParser parser = new FeedParser();
+            List<Event> events = new ArrayList<Event>();
+            for (int i = 0; i < bytes.length; i += 16) {
+                parser.feed(ByteBuffer.wrap(bytes, i, Math.min(16, bytes.length - i)));
+                take(parser, events);
+            }
+            // the events up to the last scalar are not held back
+            assertEquals("b", ((ScalarEvent) events.get(events.size() - 1)).getValue());
+            assertEquals(start, parse(document).subList(0, events.size()), events);
+            // not every part starts the scan of the scalar again
+            assertTrue(start + parser.failedAttempts, parser.failedAttempts < 100);
+        }
+    }
+
+    public void testMalformedInput() {
+        FeedParser parser = new FeedParser();
+        parser.feed(ByteBuffer.wrap(new byte[] { 'a', ':', ' ', (byte) 0xC3 }));
+        try {
+            parser.endOfInput();
+            fail("Malformed input must be reported.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("MalformedInputException"));
+        }
+    }
+
+    public void testInvalidDocument() throws UnsupportedEncodingException {
+        FeedParser parser = new FeedParser();
+        parser.feed(ByteBuffer.wrap("a: [1\nb".getBytes("UTF-8")));
+        parser.endOfInput();
+        try {
+            take(parser, new ArrayList<Event>());
+            fail("Invalid document must be reported.");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 2, column 2"));
+        }
+    }
+
+    public void testFeedAfterEnd() {
+        FeedParser parser = new FeedParser();
+        parser.endOfInput();
+        try {
+            parser.feed(ByteBuffer.wrap(new byte[] { 'a' }));
+            fail("The input is complete.");
+        } catch (YAMLException e) {
+            assertEquals("The end of the input is already reached.", e.getMessage());
+        }
+    }
+}
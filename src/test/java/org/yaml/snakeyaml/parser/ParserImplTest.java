@@ -15,7 +15,10 @@
  */
 package org.yaml.snakeyaml.parser;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 
 import junit.framework.TestCase;
 
@@ -88,4 +91,110 @@ public class ParserImplTest extends TestCase {
         etalonEvents.add(new StreamEndEvent(dummyMark, dummyMark));
         check(etalonEvents, parser);
     }
+
+    public void testSkipCurrentNode() {
+        String data = "a:\n  b: [1, {c: 'd'}]\n  e: |\n    text\n  f:\n  - g\n  - h: i\n    j: k\n"
+                + "  l: \"m\"\nn:\n- [o: p, q]\n- &r s\n- *r\nt: u\n--- v\n...\n";
+        List<Event> all = new ArrayList<Event>();
+        Parser parser = new ParserImpl(new StreamReader(data));
+        while (parser.peekEvent() != null) {
+            all.add(parser.getEvent());
+        }
+        List<String> expected = new ArrayList<String>();
+        for (Event event : all) {
+            expected.add(describe(event));
+        }
+        int skipped = 0;
+        for (int i = 0; i < all.size(); i++) {
+            Event event = all.get(i);
+            if (!(event.is(Event.ID.Scalar) || event.is(Event.ID.Alias)
+                    || event.is(Event.ID.SequenceStart) || event.is(Event.ID.MappingStart))) {
+                continue;
+            }
+            // the events of the node
+            int end = i;
+            for (int depth = 0;; end++) {
+                Event e = all.get(end);
+                if (e.is(Event.ID.SequenceStart) || e.is(Event.ID.MappingStart)) {
+                    depth++;
+                } else if (e.is(Event.ID.SequenceEnd) || e.is(Event.ID.MappingEnd)) {
+                    depth--;
+                }
+                if (depth == 0) {
+                    break;
+                }
+            }
+            List<String> rest = new ArrayList<String>(expected.subList(0, i));
+            rest.addAll(expected.subList(end + 1, expected.size()));
+            assertEquals(rest, skip(new StreamReader(data), i));
+            assertEquals(rest, skip(new StreamReader(new StringReader(data), 3), i));
+            skipped++;
+        }
+        assertEquals(33, skipped);
+    }
+
+    public void testSkipNotNode() {
+        ParserImpl parser = new ParserImpl(new StreamReader("a"));
+        try {
+            parser.skipCurrentNode();
+            fail("Only a node may be skipped.");
+        } catch (ParserException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("expected a node to skip, "
+                    + "but found <org.yaml.snakeyaml.events.StreamStartEvent()>"));
+        }
+    }
+
+    public void testReuseEvents() {
+        String data = "a: !!str b\nc: [!!str d, &e f, *e]\ng: {h: !!str }\n--- |\n  i\n";
+        List<String> expected = new ArrayList<String>();
+        Parser parser = new ParserImpl(new StreamReader(data));
+        while (parser.peekEvent() != null) {
+            expected.add(describe(parser.getEvent()));
+        }
+        ParserImpl reusing = new ParserImpl(new StreamReader(data));
+        assertFalse(reusing.isReuseEvents());
+        reusing.setReuseEvents(true);
+        assertTrue(reusing.isReuseEvents());
+        List<String> result = new ArrayList<String>();
+        ScalarEvent scalar = null;
+        String tag = null;
+        while (reusing.peekEvent() != null) {
+            Event event = reusing.getEvent();
+            result.add(describe(event));
+            if (event.is(Event.ID.Scalar)) {
+                if (scalar != null) {
+                    assertSame(scalar, event);
+                }
+                scalar = (ScalarEvent) event;
+                if (scalar.getTag() != null) {
+                    if (tag != null) {
+                        assertSame(tag, scalar.getTag());
+                    }
+                    tag = scalar.getTag();
+                }
+            }
+        }
+        assertEquals(expected, result);
+        assertEquals("tag:yaml.org,2002:str", tag);
+    }
+
+    private List<String> skip(StreamReader reader, int index) {
+        ParserImpl parser = new ParserImpl(reader);
+        List<String> result = new ArrayList<String>();
+        while (parser.peekEvent() != null) {
+            if (result.size() == index) {
+                parser.skipCurrentNode();
+                index = -1;
+            } else {
+                result.add(describe(parser.getEvent()));
+            }
+        }
+        return result;
+    }
+
+    private String describe(Event event) {
+        return event + " " + event.getStartMark().getIndex() + ":"
+                + event.getStartMark().getLine() + ":" + event.getStartMark().getColumn() + "-"
+                + event.getEndMark().getIndex();
+    }
 }
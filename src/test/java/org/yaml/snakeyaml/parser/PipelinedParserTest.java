@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.scanner.ScannerImpl;
+
+public class PipelinedParserTest extends TestCase {
+
+    public void testSameEvents() throws IOException {
+        File[] files = new File("src/test/resources/pyyaml").listFiles();
+        int compared = 0;
+        for (File file : files) {
+            if (!file.getName().endsWith(".data") && !file.getName().endsWith(".canonical")) {
+                continue;
+            }
+            String data = read(file);
+            if (data == null) {
+                // not a valid encoding
+                continue;
+            }
+            List<String> expected = new ArrayList<String>();
+            Exception failure = null;
+            try {
+                Parser parser = new ParserImpl(new StreamReader(data));
+                while (parser.peekEvent() != null) {
+                    expected.add(describe(parser.getEvent()));
+                }
+            } catch (YAMLException e) {
+                failure = e;
+            }
+            List<String> result = new ArrayList<String>();
+            PipelinedParser parser = null;
+            try {
+                parser = new PipelinedParser(new ScannerImpl(new StreamReader(data)));
+                while (parser.peekEvent() != null) {
+                    result.add(describe(parser.getEvent()));
+                }
+                assertNull(file.getName() + " " + failure, failure);
+                assertEquals(file.getName(), expected, result);
+                compared++;
+            } catch (YAMLException e) {
+                assertNotNull(file.getName() + " " + e, failure);
+            } finally {
+                if (parser != null) {
+                    parser.close();
+                }
+            }
+        }
+        assertTrue(String.valueOf(compared), compared > 200);
+    }
+
+    private String read(File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            UnicodeReader reader = new UnicodeReader(input);
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[1024];
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, length);
+            }
+            return builder.toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        } finally {
+            input.close();
+        }
+    }
+
+    private String describe(Event event) {
+        return event + " " + event.getStartMark().getIndex() + ":"
+                + event.getStartMark().getLine() + "-" + event.getEndMark().getIndex();
+    }
+
+    public void testScannerError() {
+        String data = "a: [b, c]\nd: \"e";
+        String expected = null;
+        try {
+            new Yaml().load(data);
+            fail("The quote is not closed.");
+        } catch (YAMLException e) {
+            expected = e.getMessage();
+        }
+        LoaderOptions options = new LoaderOptions();
+        options.setPipelined(true);
+        try {
+            new Yaml(options).load(data);
+            fail("The quote is not closed.");
+        } catch (YAMLException e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    public void testLoadLargeDocument() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("key").append(i).append(": {id: ").append(i)
+                    .append(", list: [a, 'b', \"c\"]}\n");
+            builder.append("text").append(i).append(": |\n  block\n  text\n");
+        }
+        String data = builder.toString();
+        LoaderOptions options = new LoaderOptions();
+        options.setPipelined(true);
+        assertTrue(options.isPipelined());
+        assertEquals(new Yaml().load(data), new Yaml(options).load(data));
+    }
+}
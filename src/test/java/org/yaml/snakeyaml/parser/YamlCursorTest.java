@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.parser;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.parser.YamlCursor.Kind;
+
+public class YamlCursorTest extends TestCase {
+
+    public void testNavigation() {
+        YamlCursor cursor = new Yaml().cursor(new StringReader(
+                "id: 7\nitems: [{a: 1}, {b: 2}]\nok: &x yes\ncopy: *x\n--- !!str text\n"));
+        assertNull(cursor.currentKind());
+        assertEquals(Kind.DOCUMENT_START, cursor.next());
+        assertEquals(Kind.MAPPING_START, cursor.next());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals("id", cursor.getText());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals(7L, cursor.getLong());
+        assertEquals(7.0, cursor.getDouble());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals("items", cursor.getTextCharacters().toString());
+        assertEquals(Kind.SEQUENCE_START, cursor.next());
+        cursor.skipChildren();
+        assertEquals(Kind.SEQUENCE_END, cursor.currentKind());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals("ok", cursor.getText());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals("x", cursor.getAnchor());
+        assertTrue(cursor.getBoolean());
+        cursor.next();
+        assertEquals(Kind.ALIAS, cursor.next());
+        assertEquals("x", cursor.getAnchor());
+        try {
+            cursor.getText();
+            fail("An alias is not a scalar.");
+        } catch (YAMLException e) {
+            assertEquals("The cursor is not on a scalar but on ALIAS", e.getMessage());
+        }
+        assertEquals(Kind.MAPPING_END, cursor.next());
+        assertEquals(Kind.DOCUMENT_END, cursor.next());
+        assertEquals(Kind.DOCUMENT_START, cursor.next());
+        assertEquals(Kind.SCALAR, cursor.next());
+        assertEquals("tag:yaml.org,2002:str", cursor.getTag());
+        assertEquals(4, cursor.getStartMark().getLine());
+        assertEquals(Kind.DOCUMENT_END, cursor.next());
+        assertNull(cursor.next());
+        assertNull(cursor.next());
+    }
+
+    /**
+     * The typed values are the same as the loaded objects.
+     */
+    public void testValuesAsLoaded() {
+        String[] values = { "0", "-0", "+12", "1_000", "0b1010", "-0b_1", "0x1F", "0x_fF", "017",
+                "0_", "08", "09", "190:20:30", "-1:00", "1:60", "1:7", "1:123", "1_2:30",
+                "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+                "-0x8000000000000001", "1.5", "-.5", ".5", "1.", "1e3", "1.5E-3", "6.8523015e+5",
+                "685.230_15e+03", "1_1.1_1", "+_1", "_1", "190:20:30.15", "-1:30.5", ".inf",
+                "-.Inf", "+.INF", ".NaN", "+.nan", "yes", "No", "ON", "off", "yEs", "true", "x",
+                "1x", "0b", "0x", "0b_", "+", ".", "1__2", "0.1", "0.000001234",
+                "123456789012345678901234", "3.141592653589793238462643", "1e400", "1e-400",
+                "0e999", "4.35e-13", "1e22", "1e23", "2.2250738585072014E-308", "1e", "1e+",
+                "1.2.3", ".e1", "1:2.", "~", "'12'", "\"1.5\"", "!!int '12'", "!!int 0x_a",
+                "!!float 1", "!!float '.5'", "!!bool yEs", "!!bool 'OFF'", "!!str 1", "!!int x" };
+        Yaml yaml = new Yaml();
+        for (String value : values) {
+            Object expected;
+            try {
+                expected = yaml.load(value);
+            } catch (NumberFormatException e) {
+                // the Constructor fails (0b_)
+                expected = e;
+            }
+            YamlCursor cursor = yaml.cursor(new StringReader(value));
+            cursor.next();
+            assertEquals(value, Kind.SCALAR, cursor.next());
+            if (expected instanceof Integer || expected instanceof Long) {
+                assertEquals(value, ((Number) expected).longValue(), cursor.getLong());
+            } else {
+                assertNotLong(value, cursor);
+            }
+            if (expected instanceof Number) {
+                assertEquals(value, Double.valueOf(((Number) expected).doubleValue()),
+                        Double.valueOf(cursor.getDouble()));
+            } else {
+                try {
+                    cursor.getDouble();
+                    fail("Not a float: " + value);
+                } catch (YAMLException e) {
+                    assertTrue(e.getMessage(), e.getMessage().startsWith("The scalar is not "));
+                }
+            }
+            if (expected instanceof Boolean) {
+                assertEquals(value, expected, cursor.getBoolean());
+            } else {
+                try {
+                    cursor.getBoolean();
+                    fail("Not a bool: " + value);
+                } catch (YAMLException e) {
+                    assertTrue(e.getMessage(), e.getMessage().startsWith("The scalar is not a "));
+                }
+            }
+        }
+    }
+
+    private void assertNotLong(String value, YamlCursor cursor) {
+        try {
+            cursor.getLong();
+            fail("Not a long: " + value);
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("The scalar is not an int: ")
+                    || e.getMessage().startsWith("The int is too large for a long: "));
+        }
+    }
+
+    public void testTooLarge() {
+        YamlCursor cursor = new Yaml().cursor(new StringReader("0x1_0000_0000_0000_0000"));
+        cursor.next();
+        cursor.next();
+        try {
+            cursor.getLong();
+            fail("The number does not fit.");
+        } catch (YAMLException e) {
+            assertEquals("The int is too large for a long: 0x1_0000_0000_0000_0000",
+                    e.getMessage());
+        }
+        assertEquals(new BigInteger("10000000000000000", 16).doubleValue(), cursor.getDouble());
+    }
+}
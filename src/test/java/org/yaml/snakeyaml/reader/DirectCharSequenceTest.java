@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import junit.framework.TestCase;
+
+public class DirectCharSequenceTest extends TestCase {
+
+    public void testAppend() {
+        DirectCharSequence sequence = new DirectCharSequence();
+        assertEquals(0, sequence.length());
+        assertEquals("", sequence.toString());
+        sequence.append("abc").append("xdefx".toCharArray(), 1, 3).append(new StringBuilder("g"));
+        assertEquals(7, sequence.length());
+        assertEquals('a', sequence.charAt(0));
+        assertEquals('g', sequence.charAt(6));
+        assertEquals("abcdefg", sequence.toString());
+        assertEquals("cde", sequence.subSequence(2, 5));
+        try {
+            sequence.charAt(7);
+            fail("Index must be checked.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Index: 7, Length: 7", e.getMessage());
+        }
+    }
+
+    public void testManyChunks() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        DirectCharSequence sequence = new DirectCharSequence();
+        for (int i = 0; i < 20000; i++) {
+            String line = "line " + i + "\n";
+            expected.append(line);
+            if (i % 2 == 0) {
+                sequence.append(line);
+            } else {
+                sequence.append(line.toCharArray(), 0, line.length());
+            }
+        }
+        assertEquals(expected.length(), sequence.length());
+        assertEquals(expected.toString(), sequence.toString());
+        for (int i = 0; i < expected.length(); i += 997) {
+            assertEquals(expected.charAt(i), sequence.charAt(i));
+        }
+        assertEquals(expected.substring(32760, 32780), sequence.subSequence(32760, 32780));
+        // read in parts which cross the chunks
+        Reader reader = sequence.openReader();
+        StringBuilder read = new StringBuilder();
+        char[] buffer = new char[1000];
+        int count;
+        while ((count = reader.read(buffer, 0, buffer.length)) != -1) {
+            read.append(buffer, 0, count);
+        }
+        reader.close();
+        assertEquals(expected.toString(), read.toString());
+        // the readers are independent
+        assertEquals('l', sequence.openReader().read());
+    }
+}
@@ -18,11 +18,19 @@ package org.yaml.snakeyaml.reader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
 
 import junit.framework.TestCase;
 
+import org.yaml.snakeyaml.Util;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 public class IoReaderTest extends TestCase {
 
@@ -46,4 +54,81 @@ public class IoReaderTest extends TestCase {
         reader.close();
         assertEquals(37, list.size());
     }
+
+    /**
+     * the result must not depend on the size of the window
+     */
+    public void testSmallWindow() throws IOException {
+        String data = Util.getLocalResource("reader/large.yaml");
+        Object expected = new Yaml().load(data);
+        for (int size = 1; size < 20; size += 3) {
+            StreamReader reader = new StreamReader(new StringReader(data), size);
+            Composer composer = new Composer(new ParserImpl(reader), new Resolver());
+            Constructor constructor = new Constructor();
+            constructor.setComposer(composer);
+            assertEquals("Size: " + size, expected, constructor.getSingleData(Object.class));
+        }
+    }
+
+    public void testPeekBeyondWindow() {
+        StreamReader reader = new StreamReader(new StringReader("0123456789abc"), 4);
+        assertEquals('0', reader.peek());
+        assertEquals('9', reader.peek(9));
+        assertEquals("0123456789a", reader.prefix(11));
+        reader.forward(10);
+        assertEquals('a', reader.peek());
+        assertEquals('\u0000', reader.peek(3));
+        assertEquals("abc", reader.prefix(10));
+    }
+
+    public void testMarkSurvivesUpdate() {
+        StreamReader reader = new StreamReader(new StringReader("first line\nsecond line\n"), 4);
+        reader.forward(2);
+        Mark mark = reader.getMark();
+        reader.forward(14);
+        assertEquals(1, reader.getLine());
+        assertEquals(5, reader.getColumn());
+        assertEquals("    firs\n      ^", mark.get_snippet());
+    }
+
+    public void testLineAndColumn() {
+        String data = "a\r\nbc\rd\n\n\uFEFFe\u2028f\u0085g\r\r\nh\r";
+        for (int size = 1; size < 10; size++) {
+            for (int step = 1; step < 4; step++) {
+                StreamReader reader = new StreamReader(new StringReader(data), size);
+                int line = 0;
+                int column = 0;
+                for (int i = 0; i < data.length(); i += step) {
+                    String message = "size=" + size + ", step=" + step + ", index=" + i;
+                    assertEquals(message, i, reader.getIndex());
+                    assertEquals(message, line, reader.getLine());
+                    assertEquals(message, column, reader.getColumn());
+                    reader.forward(step);
+                    // the same rules as the scanner: "\r\n" is a single line break
+                    for (int j = i; j < Math.min(i + step, data.length()); j++) {
+                        char ch = data.charAt(j);
+                        char next = j + 1 < data.length() ? data.charAt(j + 1) : '\0';
+                        boolean lineBreak = "\n\u0085\u2028\u2029".indexOf(ch) != -1;
+                        if (lineBreak || (ch == '\r' && next != '\n')) {
+                            line++;
+                            column = 0;
+                        } else if (ch != '\uFEFF') {
+                            column++;
+                        }
+                    }
+                }
+                assertEquals(line, reader.getLine());
+                assertEquals(column, reader.getColumn());
+            }
+        }
+    }
+
+    public void testWrongBufferSize() {
+        try {
+            new StreamReader(new StringReader("test"), 0);
+            fail("The window must not be empty.");
+        } catch (YAMLException e) {
+            assertEquals("Buffer size must be at least 1.", e.getMessage());
+        }
+    }
 }
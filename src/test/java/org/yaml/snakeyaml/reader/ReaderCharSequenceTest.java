@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import java.nio.CharBuffer;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.Util;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+
+public class ReaderCharSequenceTest extends TestCase {
+
+    private String read(StreamReader reader) {
+        StringBuilder result = new StringBuilder();
+        while (reader.peek() != '\u0000') {
+            result.append(reader.peek());
+            reader.forward();
+        }
+        return result.toString();
+    }
+
+    /**
+     * a CharSequence which is neither String nor buffer
+     */
+    private static class Chars implements CharSequence {
+        private final String value;
+
+        public Chars(String value) {
+            this.value = value;
+        }
+
+        public int length() {
+            return value.length();
+        }
+
+        public char charAt(int index) {
+            return value.charAt(index);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    public void testAllKinds() {
+        String data = Util.getLocalResource("reader/large.yaml");
+        CharBuffer slice = CharBuffer.wrap(("123" + data + "456").toCharArray(), 3, data.length());
+        CharSequence[] inputs = { data, new StringBuilder(data), new StringBuffer(data),
+                CharBuffer.wrap(data), CharBuffer.wrap(data.toCharArray()), slice.slice(), slice,
+                new Chars(data) };
+        for (CharSequence input : inputs) {
+            assertEquals(input.getClass().getName(), data, read(new StreamReader(input)));
+        }
+    }
+
+    public void testLoad() {
+        String data = Util.getLocalResource("reader/large.yaml");
+        Object expected = new Yaml().load(data);
+        assertEquals(expected, new Yaml().load(new StringBuilder(data)));
+        assertEquals(expected, new Yaml().load(CharBuffer.wrap(data.toCharArray())));
+        assertEquals(expected, new Yaml().load(new Chars(data)));
+        assertEquals("[1, 2]", new Yaml().loadAs(new StringBuilder("[1, 2]"), Object.class)
+                .toString());
+    }
+
+    public void testNonPrintable() {
+        try {
+            new Yaml().load(CharBuffer.wrap("a: \u0007".toCharArray()));
+            fail("Non printable characters must not be accepted.");
+        } catch (ReaderException e) {
+            assertEquals(3, e.getPosition());
+        }
+        try {
+            new Yaml().load(new StringBuilder("a: \u0007"));
+            fail("Non printable characters must not be accepted.");
+        } catch (ReaderException e) {
+            assertEquals(3, e.getPosition());
+        }
+    }
+
+    public void testSnippetInPlace() {
+        try {
+            new Yaml().load(CharBuffer.wrap("a: 1\nb: [2\n".toCharArray()));
+            fail("Invalid document must be reported.");
+        } catch (MarkedYAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("    b: [2\n       ^"));
+        }
+    }
+}
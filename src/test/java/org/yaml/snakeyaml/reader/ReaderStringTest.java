@@ -75,6 +75,45 @@ public class ReaderStringTest extends TestCase {
         }
     }
 
+    /**
+     * test that the chars are checked the same way at any offset in a block of
+     * 4 chars
+     */
+    public void testCheckBlocks() {
+        StreamReader streamReader = new StreamReader("");
+        for (char i = 0; i < 256 * 256 - 1; i++) {
+            for (int offset = 0; offset < 9; offset++) {
+                char[] chars = "0123456789".toCharArray();
+                chars[offset] = i;
+                boolean expected = StreamReader.isPrintable(i);
+                try {
+                    streamReader.checkPrintable(chars, 0, chars.length);
+                    assertTrue("Failed for #" + (int) i, expected);
+                } catch (ReaderException e) {
+                    assertFalse("Failed for #" + (int) i, expected);
+                    assertEquals(offset, e.getPosition());
+                }
+            }
+        }
+    }
+
+    public void testCheckString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("key").append(i).append(": value\n");
+        }
+        builder.append("key: \u0001");
+        try {
+            StreamReader reader = new StreamReader(builder.toString());
+            while (reader.peek() != '\u0000') {
+                reader.forward();
+            }
+            fail("Non printable Unicode characters must not be accepted.");
+        } catch (ReaderException e) {
+            assertEquals(builder.length() - 1, e.getPosition());
+        }
+    }
+
     public void testForward() {
         StreamReader reader = new StreamReader("test");
         while (reader.peek() != '\u0000') {
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+public class SourceSpanTest extends TestCase {
+
+    public void testSpan() {
+        SourceSpan span = new SourceSpan("key: value", 5, 5);
+        assertEquals(5, span.length());
+        assertEquals('v', span.charAt(0));
+        assertEquals("value", span.toString());
+        assertEquals(5, span.getOffset());
+        CharSequence sub = span.subSequence(1, 3);
+        assertEquals("al", sub.toString());
+        assertEquals(6, ((SourceSpan) sub).getOffset());
+        try {
+            span.charAt(5);
+            fail("Index must be checked.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Index: 5, Length: 5", e.getMessage());
+        }
+        try {
+            new SourceSpan("abc", 2, 2);
+            fail("Span must be checked.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Span 2+2 is outside of the source of length 3", e.getMessage());
+        }
+    }
+
+    public void testPlainScalarEvents() {
+        List<ScalarEvent> events = parse(new ParserImpl(new StreamReader(
+                "a: one\nb: two words\nc: multi\n  line\nd: 'quoted'\n")));
+        assertEquals(8, events.size());
+        assertTrue(events.get(0).getValueSequence() instanceof SourceSpan);
+        assertTrue(events.get(3).getValueSequence() instanceof SourceSpan);
+        assertEquals("two words", events.get(3).getValueSequence().toString());
+        assertEquals("multi line", events.get(5).getValueSequence());
+        assertEquals("quoted", events.get(7).getValueSequence());
+        // the String is created once
+        String value = events.get(1).getValue();
+        assertEquals("one", value);
+        assertTrue(events.get(1).getValueSequence() instanceof SourceSpan);
+        assertSame(value, events.get(1).getValue());
+    }
+
+    public void testNodeWithoutSpan() {
+        Composer composer = new Composer(new ParserImpl(new StreamReader("a: one")),
+                new Resolver());
+        MappingNode node = (MappingNode) composer.getSingleNode();
+        ScalarNode scalar = (ScalarNode) node.getValue().get(0).getValueNode();
+        // the node does not keep the source
+        assertEquals(String.class, scalar.getValueSequence().getClass());
+        assertSame(scalar.getValueSequence(), scalar.getValue());
+    }
+
+    public void testReaderInput() {
+        List<ScalarEvent> events = parse(new ParserImpl(new StreamReader(new StringReader(
+                "a: one"))));
+        assertEquals("one", events.get(1).getValueSequence());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLoad() {
+        Map<String, Object> map = (Map<String, Object>) new Yaml()
+                .load("a: one\nb: 17\nc: multi\n  line\n");
+        assertEquals("one", map.get("a"));
+        assertEquals(new Integer(17), map.get("b"));
+        assertEquals("multi line", map.get("c"));
+        map = (Map<String, Object>) new Yaml().load("\uFEFFa: one  two # comment\n");
+        assertEquals("one  two", map.get("a"));
+    }
+
+    private List<ScalarEvent> parse(Parser parser) {
+        List<ScalarEvent> result = new ArrayList<ScalarEvent>();
+        while (parser.peekEvent() != null) {
+            Event event = parser.getEvent();
+            if (event instanceof ScalarEvent) {
+                result.add((ScalarEvent) event);
+            }
+        }
+        return result;
+    }
+}
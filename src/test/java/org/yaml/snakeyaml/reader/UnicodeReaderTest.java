@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.reader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+public class UnicodeReaderTest extends TestCase {
+
+    private String read(UnicodeReader reader, int chunk) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[chunk];
+        int n;
+        while ((n = reader.read(buffer, 0, chunk)) != -1) {
+            result.append(buffer, 0, n);
+        }
+        reader.close();
+        return result.toString();
+    }
+
+    private InputStream utf8(String data) throws UnsupportedEncodingException {
+        return new ByteArrayInputStream(data.getBytes("UTF-8"));
+    }
+
+    public void testMultiByte() throws IOException {
+        String data = "ascii: été € фыв\n\tnext: �\r\n";
+        for (int chunk = 1; chunk < 10; chunk++) {
+            UnicodeReader reader = new UnicodeReader(utf8(data));
+            assertEquals("Chunk: " + chunk, data, read(reader, chunk));
+            assertEquals("UTF-8", reader.getEncoding());
+        }
+    }
+
+    public void testSupplementary() throws IOException {
+        // supplementary characters are delivered when the reader is used alone
+        String data = "a😀b";
+        assertEquals(data, read(new UnicodeReader(utf8(data)), 1));
+        assertEquals(data, read(new UnicodeReader(utf8(data)), 2));
+    }
+
+    public void testNonPrintable() throws IOException {
+        try {
+            StreamReader reader = new StreamReader(new UnicodeReader(utf8("12é3\u0007")));
+            while (reader.peek() != '\u0000') {
+                reader.forward();
+            }
+            fail("Non printable characters must not be accepted.");
+        } catch (ReaderException e) {
+            assertEquals(4, e.getPosition());
+            assertEquals('\u0007', e.getCharacter());
+        }
+    }
+
+    public void testNonPrintableSupplementary() throws IOException {
+        try {
+            StreamReader reader = new StreamReader(new UnicodeReader(utf8("12😀")));
+            while (reader.peek() != '\u0000') {
+                reader.forward();
+            }
+            fail("Supplementary characters must not be accepted.");
+        } catch (ReaderException e) {
+            assertEquals(2, e.getPosition());
+            assertEquals('\uD83D', e.getCharacter());
+        }
+    }
+
+    public void testMalformed() {
+        byte[][] inputs = { { 'a', (byte) 0xC3 }, { 'a', (byte) 0xC0, (byte) 0x80 },
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80 }, { (byte) 0x80 },
+                { (byte) 0xE2, (byte) 0x82, 'a' } };
+        for (byte[] input : inputs) {
+            try {
+                StreamReader reader = new StreamReader(new UnicodeReader(
+                        new ByteArrayInputStream(input)));
+                while (reader.peek() != '\u0000') {
+                    reader.forward();
+                }
+                fail("Malformed input must not be accepted.");
+            } catch (ReaderException e) {
+                fail("Malformed input is not reported: " + e);
+            } catch (YAMLException e) {
+                assertTrue(e.toString(), e.toString().contains("MalformedInputException"));
+            }
+        }
+    }
+
+    public void testUtf16WithBom() throws IOException {
+        String data = "key: été";
+        byte[] bytes = ("﻿" + data).getBytes("UTF-16LE");
+        UnicodeReader reader = new UnicodeReader(new ByteArrayInputStream(bytes));
+        assertEquals(data, read(reader, 3));
+        assertEquals(Charset.forName("UTF-16LE"), Charset.forName(reader.getEncoding()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testLoadLarge() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("key").append(i).append(": значение ")
+                    .append(i).append('\n');
+        }
+        Map<String, String> map = (Map<String, String>) new Yaml().load(utf8(builder
+                .toString()));
+        assertEquals(5000, map.size());
+        assertEquals("значение 4999", map.get("key4999"));
+    }
+}
@@ -15,7 +15,10 @@
  */
 package org.yaml.snakeyaml.scanner;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 
 import junit.framework.TestCase;
 
@@ -67,4 +70,66 @@ public class ScannerImplTest extends TestCase {
                     e.getMessage());
         }
     }
+
+    public void testEscapesAreReadOnly() {
+        assertEquals("\u2028", ScannerImpl.ESCAPE_REPLACEMENTS.get('L'));
+        assertEquals(Integer.valueOf(4), ScannerImpl.ESCAPE_CODES.get('u'));
+        try {
+            ScannerImpl.ESCAPE_REPLACEMENTS.put('q', "?");
+            fail("The scanner does not see the changes.");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            ScannerImpl.ESCAPE_CODES.remove('x');
+            fail("The scanner does not see the changes.");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    public void testPlainScalarsInSmallWindow() {
+        String data = "- a_long_plain_scalar:value with spaces: x\n"
+                + "- [flow_value, a: b, {c: d}]\n- last\n  line";
+        List<String> expected = scalars(new StreamReader(data));
+        assertEquals("[a_long_plain_scalar:value with spaces, x, flow_value, a, b, c, d, last line]",
+                expected.toString());
+        for (int size = 1; size < 8; size++) {
+            assertEquals(expected, scalars(new StreamReader(new StringReader(data), size)));
+        }
+    }
+
+    public void testQuotedScalarsInSmallWindow() {
+        String data = "- \"a \\x41\\u00e9\\U0001F600 b\\\n  c\\\"\"\n- 'one  two\n\n  three'\n"
+                + "- \"x\n  \ty\"\n- plain\n  words\n---\n- ...a\n...\n";
+        List<String> expected = scalars(new StreamReader(data));
+        assertEquals("[a A\u00e9\ud83d\ude00 bc\", one  two\nthree, x y, plain words, ...a]",
+                expected.toString());
+        for (int size = 1; size < 8; size++) {
+            assertEquals(expected, scalars(new StreamReader(new StringReader(data), size)));
+        }
+    }
+
+    public void testBlockScalarsInSmallWindow() {
+        String data = "- |\n  one\n\n   two\n    three\n- >-\n  a\n  b\n\n  c\n   d\n"
+                + "- |+\n  x\r\n\r\n- >2\n     y\n    \n";
+        List<String> expected = scalars(new StreamReader(data));
+        assertEquals("[one\n\n two\n  three\n, a b\nc\n d, x\n\n,    y\n  \n]",
+                expected.toString());
+        for (int size = 1; size < 8; size++) {
+            assertEquals(expected, scalars(new StreamReader(new StringReader(data), size)));
+        }
+    }
+
+    private List<String> scalars(StreamReader reader) {
+        Scanner scanner = new ScannerImpl(reader);
+        List<String> result = new ArrayList<String>();
+        while (scanner.checkToken(new Token.ID[0])) {
+            Token token = scanner.getToken();
+            if (token instanceof ScalarToken) {
+                result.add(((ScalarToken) token).getValue());
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.scanner;
+
+import junit.framework.TestCase;
+
+public class SymbolTableTest extends TestCase {
+
+    public void testIntern() {
+        SymbolTable table = new SymbolTable();
+        assertEquals(SymbolTable.DEFAULT_CAPACITY, table.getCapacity());
+        char[] chars = "name: a, id: 1, name: b".toCharArray();
+        String name = table.intern(chars, 0, 4);
+        assertEquals("name", name);
+        assertEquals("id", table.intern(chars, 9, 2));
+        assertSame(name, table.intern(chars, 16, 4));
+        assertEquals("", table.intern(chars, 3, 0));
+        assertEquals(1, table.getHits());
+        assertEquals(3, table.getMisses());
+        assertEquals("SymbolTable: capacity 1024, hits 1, misses 3", table.toString());
+    }
+
+    public void testBounded() {
+        SymbolTable table = new SymbolTable(3);
+        assertEquals(4, table.getCapacity());
+        for (int i = 0; i < 100; i++) {
+            char[] chars = ("key" + i).toCharArray();
+            assertEquals("key" + i, table.intern(chars, 0, chars.length));
+        }
+        assertEquals(100, table.getMisses());
+        char[] chars = "key99".toCharArray();
+        assertEquals("key99", table.intern(chars, 0, chars.length));
+        assertEquals(1, table.getHits());
+    }
+
+    public void testCapacity() {
+        try {
+            new SymbolTable(0);
+            fail("Capacity must be checked.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Capacity must be between 1 and 2^24: 0", e.getMessage());
+        }
+    }
+}
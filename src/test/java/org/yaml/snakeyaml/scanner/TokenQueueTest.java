@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.scanner;
+
+import junit.framework.TestCase;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.tokens.ScalarToken;
+import org.yaml.snakeyaml.tokens.Token;
+
+public class TokenQueueTest extends TestCase {
+
+    private Token token(int i) {
+        return new ScalarToken(String.valueOf(i), Mark.UNKNOWN, Mark.UNKNOWN, true);
+    }
+
+    private String value(Token token) {
+        return ((ScalarToken) token).getValue();
+    }
+
+    public void testAddPoll() {
+        TokenQueue queue = new TokenQueue(2);
+        assertTrue(queue.isEmpty());
+        // wrap around and grow
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5; i++) {
+                queue.add(token(i));
+            }
+            assertEquals(5, queue.size());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(String.valueOf(i), value(queue.peek()));
+                assertEquals(String.valueOf(i), value(queue.poll()));
+            }
+            assertTrue(queue.isEmpty());
+            queue.add(token(9));
+            queue.poll();
+        }
+    }
+
+    public void testInsert() {
+        TokenQueue queue = new TokenQueue(4);
+        queue.add(token(0));
+        queue.poll();
+        queue.add(token(1));
+        queue.add(token(3));
+        queue.add(token(4));
+        queue.add(1, token(2));
+        queue.add(4, token(5));
+        queue.add(0, token(0));
+        TokenQueue copy = queue.copy();
+        for (int i = 0; i < 6; i++) {
+            assertEquals(String.valueOf(i), value(queue.poll()));
+        }
+        assertEquals(6, copy.size());
+        assertEquals("0", value(copy.peek()));
+        try {
+            queue.add(1, token(1));
+            fail("Index must be checked.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Index: 1, Size: 0", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,436 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.stress;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.LoaderOptions.MarkMode;
+import org.yaml.snakeyaml.ParallelLoader;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.scanner.Scanner;
+import org.yaml.snakeyaml.scanner.ScannerImpl;
+import org.yaml.snakeyaml.scanner.SymbolTable;
+
+/**
+ * The benchmarks of the loading steps on generated documents. Each case
+ * compares its variants: the time and the bytes allocated by the current
+ * thread per round (it requires a JVM with com.sun.management.ThreadMXBean).
+ * The first argument is the name of the case (all the cases are run by
+ * default), the second one the number of rounds. It is not a test, run it
+ * manually.
+ */
+public class Benchmark {
+
+    /**
+     * A way to process the document of a case
+     */
+    private abstract static class Variant {
+        private final String name;
+
+        Variant(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the number to report (of the tokens, the events etc.)
+         */
+        abstract int run(String document);
+    }
+
+    private static class Case {
+        private final String name;
+        private final String document;
+        private final int rounds;
+        private final List<Variant> variants = new ArrayList<Variant>();
+
+        Case(String name, String document, int rounds) {
+            this.name = name;
+            this.document = document;
+            this.rounds = rounds;
+        }
+
+        Case add(Variant variant) {
+            variants.add(variant);
+            return this;
+        }
+    }
+
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : null;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        boolean found = false;
+        for (Case benchmark : createCases()) {
+            if (name == null || name.equals(benchmark.name)) {
+                measure(benchmark, rounds > 0 ? rounds : benchmark.rounds);
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Unknown case: " + name);
+        }
+    }
+
+    private static List<Case> createCases() {
+        List<Case> cases = new ArrayList<Case>();
+        cases.add(marks());
+        cases.add(flow());
+        cases.add(deep());
+        cases.add(plain());
+        cases.add(symbols());
+        cases.add(quoted());
+        cases.add(block());
+        cases.add(skip());
+        cases.add(parallel());
+        cases.add(pipelined());
+        return cases;
+    }
+
+    private static void measure(Case benchmark, int rounds) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        System.out.println(benchmark.name + ": " + benchmark.document.length() + " chars");
+        for (int warmup = 0; warmup < 2; warmup++) {
+            for (Variant variant : benchmark.variants) {
+                long bytes = bean.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                int result = 0;
+                for (int i = 0; i < rounds; i++) {
+                    result = variant.run(benchmark.document);
+                }
+                long duration = System.nanoTime() - start;
+                bytes = bean.getThreadAllocatedBytes(threadId) - bytes;
+                if (warmup == 1) {
+                    System.out.println("  " + variant.name + " (" + result + "): "
+                            + duration / 1000000 / (double) rounds + " ms, " + bytes / rounds
+                            / 1024 + " KB");
+                }
+            }
+        }
+    }
+
+    private static StreamReader createReader(String document, boolean fromReader) {
+        return fromReader ? new StreamReader(new StringReader(document)) : new StreamReader(
+                document);
+    }
+
+    /**
+     * Count the tokens
+     */
+    private static Variant scan(final boolean fromReader) {
+        return new Variant(fromReader ? "scan Reader" : "scan String") {
+            int run(String document) {
+                Scanner scanner = new ScannerImpl(createReader(document, fromReader));
+                int count = 0;
+                while (scanner.checkToken()) {
+                    scanner.getToken();
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Count the events
+     */
+    private static Variant parse(final boolean fromReader) {
+        return new Variant(fromReader ? "parse Reader" : "parse String") {
+            int run(String document) {
+                ParserImpl parser = new ParserImpl(createReader(document, fromReader));
+                int count = 0;
+                while (parser.getEvent() != null) {
+                    count++;
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Load the document, the size of the loaded collection is reported
+     */
+    private static Variant load(String name, final Yaml yaml, final boolean fromReader) {
+        return new Variant(name) {
+            int run(String document) {
+                Object data = fromReader ? yaml.load(new StringReader(document)) : yaml
+                        .load(document);
+                return data instanceof Collection ? ((Collection<?>) data).size() : 1;
+            }
+        };
+    }
+
+    /**
+     * A list of small mappings loaded in each MarkMode (from a Reader, and
+     * from the String which is the source of the Marks)
+     */
+    private static Case marks() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append("- id: id").append(i).append('\n');
+            builder.append("  name: \"item ").append(i).append("\"\n");
+            builder.append("  values: [").append(i).append(", ").append(i + 1).append(", ")
+                    .append(i + 2).append("]\n");
+            builder.append("  nested: {enabled: true, ratio: 0.").append(i).append("}\n");
+        }
+        Case marks = new Case("marks", builder.toString(), 20);
+        for (MarkMode mode : MarkMode.values()) {
+            LoaderOptions options = new LoaderOptions();
+            options.setMarkMode(mode);
+            marks.add(load(mode.name() + " Reader", new Yaml(options), true));
+            marks.add(load(mode.name() + " String", new Yaml(options), false));
+        }
+        return marks;
+    }
+
+    /**
+     * Deeply nested flow collections: many possible simple keys are pending
+     * and many tokens are queued
+     */
+    private static Case flow() {
+        StringBuilder builder = new StringBuilder();
+        int depth = 500;
+        for (int i = 0; i < depth; i++) {
+            builder.append(i % 2 == 0 ? "[" : "{k").append(i).append(": ");
+            for (int j = 0; j < 20; j++) {
+                builder.append("{a").append(j).append(": b, c: [d, e]}, ");
+            }
+        }
+        builder.append("end");
+        for (int i = depth - 1; i >= 0; i--) {
+            builder.append(i % 2 == 0 ? "]" : "}");
+        }
+        return new Case("flow", builder.toString(), 50).add(scan(false));
+    }
+
+    /**
+     * Deeply indented mappings and sequences with non-ASCII double quoted
+     * scalars: dumped, loaded, parsed and scanned
+     */
+    private static Case deep() {
+        Map<String, Object> root = new LinkedHashMap<String, Object>();
+        Map<String, Object> current = root;
+        for (int i = 0; i < 100; i++) {
+            List<Object> list = new ArrayList<Object>();
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 20; j++) {
+                text.append("\u041F\u0440\u0438\u0432\u0435\u0442 \u00E9l\u00E8ve ");
+            }
+            list.add(text.append(i).toString());
+            Map<String, Object> child = new LinkedHashMap<String, Object>();
+            list.add(child);
+            current.put("key" + i, list);
+            current = child;
+        }
+        final Object data = root;
+        DumperOptions options = new DumperOptions();
+        options.setDefaultScalarStyle(DumperOptions.ScalarStyle.DOUBLE_QUOTED);
+        options.setAllowUnicode(false);
+        final Yaml yaml = new Yaml(options);
+        Case deep = new Case("deep", yaml.dump(data), 20);
+        deep.add(new Variant("dump") {
+            int run(String document) {
+                return yaml.dump(data).length();
+            }
+        });
+        return deep.add(load("load", yaml, false)).add(parse(false)).add(scan(false));
+    }
+
+    /**
+     * Long plain scalars in the block and in the flow context
+     */
+    private static Case plain() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("- description_of_the_item: http://example.com/items/").append(i)
+                    .append("/details?format=yaml lorem ipsum dolor sit amet\n");
+            builder.append("  flow: [first_long_value_").append(i)
+                    .append(", second/long/value/without/colons, third]\n");
+        }
+        return new Case("plain", builder.toString(), 20).add(scan(false)).add(scan(true));
+    }
+
+    /**
+     * A list of mappings with the same keys loaded with and without the
+     * symbol table
+     */
+    private static Case symbols() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append("- hostname: host").append(i).append('\n');
+            builder.append("  address: 10.0.").append(i % 256).append('.').append(i / 256)
+                    .append('\n');
+            builder.append("  environment: production\n");
+            builder.append("  datacenter: dc").append(i % 4).append('\n');
+            builder.append("  tags: {role: web, owner: team").append(i % 10).append("}\n");
+        }
+        LoaderOptions options = new LoaderOptions();
+        options.setSymbolTable(new SymbolTable());
+        return new Case("symbols", builder.toString(), 10)
+                .add(load("without table", new Yaml(), true))
+                .add(load("with table", new Yaml(options), true));
+    }
+
+    /**
+     * JSON (double quoted keys and values with some escapes) and single
+     * quoted scalars
+     */
+    private static Case quoted() {
+        StringBuilder builder = new StringBuilder("[\n");
+        for (int i = 0; i < 20000; i++) {
+            builder.append("{\"id\": \"item-").append(i)
+                    .append("\", \"title\": \"A rather long title of the item number ")
+                    .append(i).append(" with some words\", \"path\": \"C:\\\\data\\\\")
+                    .append(i).append("\", \"note\": \"line one\\nline two\\t\\u00e9t\\u00e9\"")
+                    .append(", \"quote\": \"say \\\"hello\\\"\"")
+                    .append(", 'single': 'it''s the item ").append(i).append("'},\n");
+        }
+        builder.append("{}]\n");
+        return new Case("quoted", builder.toString(), 20).add(scan(false)).add(scan(true));
+    }
+
+    /**
+     * Large literal and folded block scalars (as with embedded certificates
+     * or scripts)
+     */
+    private static Case block() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            builder.append("block").append(i).append(i % 2 == 0 ? ": |\n" : ": >\n");
+            for (int j = 0; j < 2000; j++) {
+                builder.append("    MIIDdzCCAl+gAwIBAgIEAgAAuTANBgkqhkiG9w0BAQUF")
+                        .append("ADBaMQswCQYDVQQGEwJJ").append(j).append('\n');
+                if (j % 50 == 0) {
+                    builder.append('\n');
+                }
+            }
+        }
+        return new Case("block", builder.toString(), 20).add(scan(false)).add(scan(true));
+    }
+
+    /**
+     * All the events of large sections compared with skipping them
+     * (ParserImpl.skipCurrentNode())
+     */
+    private static Case skip() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            builder.append("name").append(i).append(": section ").append(i).append('\n');
+            builder.append("section").append(i).append(":\n");
+            for (int j = 0; j < 5000; j++) {
+                builder.append("  key").append(j).append(":\n");
+                builder.append("    title: \"The title number ").append(j).append("\"\n");
+                builder.append("    tags: [first, second, third]\n");
+                builder.append("    text: plain words of the entry ").append(j).append('\n');
+            }
+        }
+        Case skip = new Case("skip", builder.toString(), 20).add(parse(true));
+        return skip.add(new Variant("skip sections") {
+            int run(String document) {
+                ParserImpl parser = new ParserImpl(new StreamReader(new StringReader(document)));
+                int count = 0;
+                int depth = 0;
+                while (parser.peekEvent() != null) {
+                    Event event = parser.peekEvent();
+                    // the values of the sections are skipped
+                    if (depth == 1 && event.is(Event.ID.MappingStart)) {
+                        parser.skipCurrentNode();
+                    } else {
+                        parser.getEvent();
+                        if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+                            depth++;
+                        } else if (event.is(Event.ID.MappingEnd)
+                                || event.is(Event.ID.SequenceEnd)) {
+                            depth--;
+                        }
+                    }
+                    count++;
+                }
+                return count;
+            }
+        });
+    }
+
+    /**
+     * A stream of many small documents loaded with Yaml.loadAll() and with
+     * ParallelLoader (with a thread per processor)
+     */
+    private static Case parallel() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append("--- # document ").append(i).append('\n');
+            builder.append("id: ").append(i).append('\n');
+            builder.append("name: \"The name of ").append(i).append("\"\n");
+            builder.append("tags: [first, second, third]\n");
+            builder.append("text: |\n  ---\n  a block scalar\n");
+        }
+        final ParallelLoader loader = new ParallelLoader(Runtime.getRuntime()
+                .availableProcessors(), new Callable<Yaml>() {
+            public Yaml call() {
+                return new Yaml();
+            }
+        });
+        Case parallel = new Case("parallel", builder.toString(), 5);
+        parallel.add(new Variant("loadAll") {
+            int run(String document) {
+                return count(new Yaml().loadAll(document));
+            }
+        });
+        return parallel.add(new Variant("ParallelLoader") {
+            int run(String document) {
+                return count(loader.loadAll(document));
+            }
+        });
+    }
+
+    private static int count(Iterable<Object> documents) {
+        int count = 0;
+        for (Object data : documents) {
+            count += data != null ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * One large document loaded with and without LoaderOptions.setPipelined()
+     */
+    private static Case pipelined() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.append("- id: ").append(i).append('\n');
+            builder.append("  name: \"The name of ").append(i).append("\"\n");
+            builder.append("  tags: [first, second, third]\n");
+            builder.append("  text: |\n    a block scalar\n");
+        }
+        LoaderOptions options = new LoaderOptions();
+        options.setPipelined(true);
+        return new Case("pipelined", builder.toString(), 5)
+                .add(load("load", new Yaml(), false))
+                .add(load("pipelined", new Yaml(options), false));
+    }
+}
@@ -28,4 +28,17 @@ public class ArrayStackTest extends TestCase {
         stack.clear();
         assertTrue(stack.isEmpty());
     }
+
+    public void testCopy() {
+        ArrayStack<Integer> stack = new ArrayStack<Integer>(25);
+        stack.push(new Integer(1));
+        stack.push(new Integer(2));
+        ArrayStack<Integer> copy = stack.copy();
+        stack.pop();
+        stack.push(new Integer(3));
+        assertEquals(new Integer(2), copy.pop());
+        assertEquals(new Integer(1), copy.pop());
+        assertTrue(copy.isEmpty());
+        assertEquals(new Integer(3), stack.pop());
+    }
 }
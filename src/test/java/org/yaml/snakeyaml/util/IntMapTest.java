@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.util;
+
+import junit.framework.TestCase;
+
+public class IntMapTest extends TestCase {
+
+    public void testPutGet() {
+        IntMap<String> map = new IntMap<String>(2);
+        assertTrue(map.isEmpty());
+        for (int i = -50; i < 50; i++) {
+            assertNull(map.put(i * 65536, "v" + i));
+        }
+        assertEquals(100, map.size());
+        for (int i = -50; i < 50; i++) {
+            assertTrue(map.containsKey(i * 65536));
+            assertEquals("v" + i, map.get(i * 65536));
+        }
+        assertFalse(map.containsKey(1));
+        assertNull(map.get(1));
+        assertEquals("v0", map.put(0, "zero"));
+        assertEquals("zero", map.get(0));
+        assertEquals(100, map.size());
+    }
+
+    public void testCharKeys() {
+        IntMap<String> map = new IntMap<String>(4);
+        map.put('\u2028', "L");
+        map.put('\0', "0");
+        assertEquals("L", map.get('\u2028'));
+        assertEquals("0", map.get('\0'));
+        assertNull(map.get(32));
+    }
+
+    public void testNullValue() {
+        IntMap<String> map = new IntMap<String>(4);
+        try {
+            map.put(1, null);
+            fail("Null values are not allowed.");
+        } catch (NullPointerException e) {
+            assertEquals("Null values are not allowed.", e.getMessage());
+        }
+    }
+}
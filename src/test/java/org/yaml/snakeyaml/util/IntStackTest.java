@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2008, http://www.snakeyaml.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yaml.snakeyaml.util;
+
+import junit.framework.TestCase;
+
+public class IntStackTest extends TestCase {
+
+    public void testPushPop() {
+        IntStack stack = new IntStack(1);
+        assertTrue(stack.isEmpty());
+        for (int i = -1; i < 20; i++) {
+            stack.push(i);
+        }
+        assertEquals(21, stack.size());
+        for (int i = 19; i >= -1; i--) {
+            assertEquals(i, stack.pop());
+        }
+        assertTrue(stack.isEmpty());
+        try {
+            stack.pop();
+            fail("Empty stack must be detected.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Stack is empty.", e.getMessage());
+        }
+    }
+
+    public void testClear() {
+        IntStack stack = new IntStack(25);
+        stack.push(1);
+        stack.push(2);
+        assertFalse(stack.isEmpty());
+        stack.clear();
+        assertTrue(stack.isEmpty());
+    }
+
+    public void testCopy() {
+        IntStack stack = new IntStack(25);
+        stack.push(1);
+        stack.push(2);
+        IntStack copy = stack.copy();
+        stack.pop();
+        stack.push(3);
+        assertEquals(2, copy.pop());
+        assertEquals(1, copy.pop());
+        assertTrue(copy.isEmpty());
+        assertEquals(3, stack.pop());
+    }
+}